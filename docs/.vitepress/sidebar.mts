@@ -78,6 +78,14 @@ const advancedItems: DefaultTheme.NavItem[] = [
   {
     text: 'Caching',
     link: '/advanced/caching'
+  },
+  {
+    text: 'Custom Endpoint',
+    link: '/advanced/custom-endpoint'
+  },
+  {
+    text: 'Rate Limits',
+    link: '/advanced/rate-limits'
   }
 ]
 export const sidebar: DefaultTheme.Sidebar = [
@@ -0,0 +1,68 @@
+package io.github.brenoepics.at4j.core;
+
+import io.github.brenoepics.at4j.AzureApi;
+import io.github.brenoepics.at4j.AzureApiBuilder;
+import io.github.brenoepics.at4j.data.request.TranslateParams;
+import io.github.brenoepics.at4j.mock.MockTranslatorServer;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the throughput of concurrent translations against a local {@link
+ * MockTranslatorServer} which answers with a fixed latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AzureApiThroughputBenchmark {
+
+  @Param({"0", "20"})
+  private int latencyMillis;
+
+  @Param({"1", "50"})
+  private int concurrentRequests;
+
+  private MockTranslatorServer server;
+  private AzureApi api;
+  private TranslateParams params;
+
+  @Setup
+  public void setUp() throws IOException {
+    server = new MockTranslatorServer().setLatency(Duration.ofMillis(latencyMillis)).start();
+    api = new AzureApiBuilder().baseURI(server.getBaseURI()).setKey("benchmark").build();
+    params = new TranslateParams("Hello World!", List.of("pt"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    api.disconnect();
+    server.close();
+  }
+
+  @Benchmark
+  public void translate() {
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[concurrentRequests];
+    for (int i = 0; i < concurrentRequests; i++) {
+      futures[i] = api.translate(params);
+    }
+    CompletableFuture.allOf(futures).join();
+  }
+}
@@ -0,0 +1,61 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+import io.github.brenoepics.at4j.AzureApi;
+import io.github.brenoepics.at4j.AzureApiBuilder;
+import io.github.brenoepics.at4j.util.rest.OriginCaptureMode;
+import io.github.brenoepics.at4j.util.rest.RestEndpoint;
+import io.github.brenoepics.at4j.util.rest.RestMethod;
+import io.github.brenoepics.at4j.util.rest.RestRequest;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks creating a request and passing it through the queue of its bucket, without sending
+ * it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitManagerBenchmark {
+
+  @Param({"FULL", "LIMITED", "NONE"})
+  private OriginCaptureMode originCaptureMode;
+
+  private AzureApi api;
+  private RateLimitManager<Void, Void, Void> manager;
+
+  @Setup
+  public void setUp() {
+    api = new AzureApiBuilder().setKey("benchmark").originCaptureMode(originCaptureMode).build();
+    manager = new RateLimitManager<>(api);
+  }
+
+  @TearDown
+  public void tearDown() {
+    api.disconnect();
+  }
+
+  @Benchmark
+  public RestRequest queueRequest() {
+    RestRequest request = new RestRequest(api, RestMethod.POST, RestEndpoint.TRANSLATE);
+    RateLimitBucket<Void, Void, Void> bucket = manager.searchBucket(request).orElseThrow();
+    RestRequest polled = bucket.acquireSlot();
+    bucket.releaseSlot();
+    manager.retryRequest(bucket);
+    return polled;
+  }
+}
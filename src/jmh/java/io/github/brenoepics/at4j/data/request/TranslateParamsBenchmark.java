@@ -0,0 +1,106 @@
+package io.github.brenoepics.at4j.data.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.brenoepics.at4j.AzureApi;
+import io.github.brenoepics.at4j.AzureApiBuilder;
+import io.github.brenoepics.at4j.data.response.TranslationResponse;
+import io.github.brenoepics.at4j.util.rest.RestEndpoint;
+import io.github.brenoepics.at4j.util.rest.RestMethod;
+import io.github.brenoepics.at4j.util.rest.RestRequest;
+import io.github.brenoepics.at4j.util.rest.RestRequestResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks the encoding of translate request bodies and the handling of their responses. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TranslateParamsBenchmark {
+
+  @Param({"1", "100"})
+  private int texts;
+
+  @Param({"1", "3"})
+  private int targetLanguages;
+
+  private AzureApi api;
+  private ObjectMapper mapper;
+  private TranslateParams params;
+  private RestRequest request;
+  private byte[] responseBody;
+
+  @Setup
+  public void setUp() throws Exception {
+    api = new AzureApiBuilder().setKey("benchmark").build();
+    mapper = api.getObjectMapper();
+
+    List<String> languages = List.of("pt", "es", "fr").subList(0, targetLanguages);
+    List<String> textList = new ArrayList<>();
+    for (int i = 0; i < texts; i++) {
+      textList.add("The quick brown fox jumps over the lazy dog, sentence number " + i + ".");
+    }
+    params = new TranslateParams(textList, languages);
+    request = new RestRequest(api, RestMethod.POST, RestEndpoint.TRANSLATE);
+
+    ArrayNode response = mapper.createArrayNode();
+    for (String text : textList) {
+      ObjectNode result = response.addObject();
+      result.putObject("detectedLanguage").put("language", "en").put("score", 1.0);
+      ArrayNode translations = result.putArray("translations");
+      for (String language : languages) {
+        translations.addObject().put("text", text + " (" + language + ")").put("to", language);
+      }
+    }
+    responseBody = mapper.writeValueAsBytes(response);
+  }
+
+  @TearDown
+  public void tearDown() {
+    api.disconnect();
+  }
+
+  @Benchmark
+  public String getBody() {
+    return params.getBody().toString();
+  }
+
+  @Benchmark
+  public byte[] getBodyBytes() {
+    return params.getBodyBytes(mapper.getFactory());
+  }
+
+  @Benchmark
+  public Optional<TranslationResponse> handleResponse() {
+    return params.handleResponse(new RestRequestResult(request, null, responseBody));
+  }
+
+  @Benchmark
+  public Optional<TranslationResponse> parseResponse() {
+    return params.parseResponse(new RestRequestResult(request, null, responseBody));
+  }
+
+  @Benchmark
+  public JsonNode getJsonBody() {
+    return new RestRequestResult(request, null, responseBody).getJsonBody();
+  }
+}
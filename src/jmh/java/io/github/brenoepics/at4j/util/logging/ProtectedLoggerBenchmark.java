@@ -0,0 +1,49 @@
+package io.github.brenoepics.at4j.util.logging;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.NOPLogger;
+
+/** Benchmarks the scrubbing of private data from log messages. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtectedLoggerBenchmark {
+
+  private static final String SUBSCRIPTION_KEY = "0123456789abcdef0123456789abcdef";
+
+  @Param({"false", "true"})
+  private boolean containsPrivateData;
+
+  private ProtectedLogger logger;
+  private String message;
+
+  @Setup
+  public void setUp() {
+    ProtectedLogger.addPrivateData(SUBSCRIPTION_KEY);
+    logger = new ProtectedLogger(NOPLogger.NOP_LOGGER);
+    message =
+        "Trying to send POST request to https://api.cognitive.microsofttranslator.com/translate"
+            + "?api-version=3.0&to=pt with headers "
+            + (containsPrivateData ? SUBSCRIPTION_KEY : "[redacted]");
+  }
+
+  @Benchmark
+  public void handleLoggingCall() {
+    logger.handleNormalizedLoggingCall(Level.DEBUG, null, message, null, null);
+  }
+}
@@ -0,0 +1,45 @@
+package io.github.brenoepics.at4j.util.rest;
+
+import io.github.brenoepics.at4j.azure.BaseURL;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks building the url of a request. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestEndpointBenchmark {
+
+  private final Map<String, Collection<String>> queryParameters = new HashMap<>();
+
+  @Setup
+  public void setUp() {
+    queryParameters.put("api-version", List.of("3.0"));
+    queryParameters.put("from", List.of("en"));
+    queryParameters.put("to", List.of("pt", "es", "fr"));
+    queryParameters.put("textType", List.of("html"));
+  }
+
+  @Benchmark
+  public URI getHttpUrl() throws URISyntaxException {
+    return RestEndpoint.TRANSLATE.getHttpUrl(BaseURL.GLOBAL, queryParameters);
+  }
+}
@@ -72,6 +72,15 @@ public class AT4J {
    */
   public static final String AZURE_TRANSLATOR_API_VERSION = "3.0";
 
+  /** The maximum amount of text elements Azure accepts in a single request. */
+  public static final int MAX_TEXT_ELEMENTS = 100;
+
+  /**
+   * The maximum amount of characters (including spaces) of all text elements Azure accepts in a
+   * single request.
+   */
+  public static final int MAX_TEXT_CHARACTERS = 50_000;
+
   /** Private constructor to prevent instantiation of this utility class. */
   private AT4J() {
     throw new UnsupportedOperationException();
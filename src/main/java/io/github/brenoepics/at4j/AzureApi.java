@@ -3,6 +3,9 @@ package io.github.brenoepics.at4j;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.brenoepics.at4j.azure.BaseURL;
 import io.github.brenoepics.at4j.azure.lang.Language;
+import io.github.brenoepics.at4j.core.batch.BatchPolicy;
+import io.github.brenoepics.at4j.core.batch.BatchingAzureApi;
+import io.github.brenoepics.at4j.core.cache.TranslationCache;
 import io.github.brenoepics.at4j.core.ratelimit.RateLimitManager;
 import io.github.brenoepics.at4j.core.thread.ThreadPool;
 import io.github.brenoepics.at4j.data.TranslationResult;
@@ -11,7 +14,10 @@ import io.github.brenoepics.at4j.data.request.DetectLanguageParams;
 import io.github.brenoepics.at4j.data.request.TranslateParams;
 import io.github.brenoepics.at4j.data.response.DetectResponse;
 import io.github.brenoepics.at4j.data.response.TranslationResponse;
+import io.github.brenoepics.at4j.util.rest.OriginCaptureMode;
+import java.net.URI;
 import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -32,6 +38,17 @@ public interface AzureApi {
    */
   BaseURL getBaseURL();
 
+  /**
+   * Gets the base URI requests are sent to. Unless a custom base URI was set, this is the https URI
+   * of the {@link #getBaseURL() BaseURL}.
+   *
+   * @return The base URI requests are sent to.
+   * @see AzureApiBuilder#baseURI(URI)
+   */
+  default URI getBaseURI() {
+    return URI.create("https://" + getBaseURL().getUrl());
+  }
+
   /**
    * Gets the used subscription key.
    *
@@ -61,6 +78,74 @@ public interface AzureApi {
    */
   ThreadPool getThreadPool();
 
+  /**
+   * Gets the cache which is used for translations, if one was configured.
+   *
+   * @return The translation cache or an empty optional if translations are not cached.
+   * @see AzureApiBuilder#translationCache(TranslationCache)
+   */
+  default Optional<TranslationCache> getTranslationCache() {
+    return Optional.empty();
+  }
+
+  /**
+   * Gets how the origin of requests is captured.
+   *
+   * @return The origin capture mode.
+   * @see AzureApiBuilder#originCaptureMode(OriginCaptureMode)
+   */
+  default OriginCaptureMode getOriginCaptureMode() {
+    return OriginCaptureMode.FULL;
+  }
+
+  /**
+   * Gets the minimum size of request bodies which are sent gzip-compressed. Responses are always
+   * requested compressed, regardless of this setting.
+   *
+   * @return The minimum size in bytes, or 0 if request bodies are never compressed.
+   * @see AzureApiBuilder#requestCompressionThreshold(int)
+   */
+  default int getRequestCompressionThreshold() {
+    return 0;
+  }
+
+  /**
+   * Gets the default time a request may take, from queueing it until its response arrived. A
+   * request which exceeds it is aborted and fails with a {@link
+   * java.util.concurrent.TimeoutException}, or a {@link java.net.http.HttpTimeoutException} if it
+   * was in-flight.
+   *
+   * @return The default timeout or an empty optional if requests don't time out by default.
+   * @see AzureApiBuilder#requestTimeout(Duration)
+   * @see io.github.brenoepics.at4j.util.rest.RestRequest#setTimeout(Duration)
+   */
+  default Optional<Duration> getRequestTimeout() {
+    return Optional.empty();
+  }
+
+  /**
+   * Opens the given amount of connections to Azure, so later requests don't have to wait for the
+   * DNS lookup and the TCP and TLS handshakes. Each connection is primed with a concurrent request
+   * to the languages endpoint, which neither requires authorization nor counts against the
+   * character quota.
+   *
+   * <p>Warming up is best-effort: failed requests are logged and don't complete the returned
+   * future exceptionally. Implementations which don't support it may do nothing. The warm-up
+   * requests bypass the request queue and its limits, and with HTTP/2 only a single connection is
+   * opened, see {@link AzureApiBuilder#prewarmConnections(int)}.
+   *
+   * @param connections The amount of connections to open, at least 1.
+   * @return A future which completes once all warm-up requests finished.
+   * @throws IllegalArgumentException If the amount of connections is less than 1.
+   * @see AzureApiBuilder#prewarmConnections(int)
+   */
+  default CompletableFuture<Void> prewarmConnections(int connections) {
+    if (connections < 1) {
+      throw new IllegalArgumentException("The amount of connections must be at least 1");
+    }
+    return CompletableFuture.completedFuture(null);
+  }
+
   /**
    * Disconnects the AzureApi. <br>
    * This method should be called when the AzureApi is no longer needed.
@@ -70,13 +155,30 @@ public interface AzureApi {
   void disconnect();
 
   /**
-   * Translates the given text from the given source language to the given target language.
+   * Translates the given text from the given source language to the given target language. <br>
+   * Params which exceed the limits of a single request are split into several requests, whose
+   * results are merged in the original order.
    *
    * @param params The {@link TranslateParams} to translate.
    * @return The {@link TranslationResult} containing the translation.
    */
   CompletableFuture<Optional<TranslationResponse>> translate(TranslateParams params);
 
+  /**
+   * Creates an api which coalesces concurrent {@link #translate(TranslateParams)} calls with
+   * identical options into a single request, as described by the given policy. Each caller still
+   * receives only the results of its own texts. All other methods behave like the ones of this api.
+   * <br>
+   * This is useful for workloads with many small texts, as it reduces the amount of requests and
+   * the pressure on the rate-limits.
+   *
+   * @param policy The {@link BatchPolicy} which describes how calls are batched.
+   * @return The batching api.
+   */
+  default AzureApi batching(BatchPolicy policy) {
+    return new BatchingAzureApi(this, policy);
+  }
+
   /**
    * Gets the available languages for translation.
    *
@@ -91,8 +193,9 @@ public interface AzureApi {
 
   /**
    * Detects the language of the given text. <br>
-   * <b>Limitations:</b> The array can have at most 100 elements. <br>
-   * The entire text included in the request can't exceed 50,000 characters including spaces.
+   * <b>Limitations:</b> A single request can have at most 100 elements, and its entire text can't
+   * exceed 50,000 characters including spaces. Larger params are split into several requests, whose
+   * results are merged in the original order.
    *
    * @param params The {@link DetectLanguageParams} to detect the language.
    * @return DetectedLanguage - The detected language.
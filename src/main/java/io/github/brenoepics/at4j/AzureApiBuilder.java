@@ -2,13 +2,28 @@ package io.github.brenoepics.at4j;
 
 import io.github.brenoepics.at4j.azure.BaseURL;
 import io.github.brenoepics.at4j.core.AzureApiImpl;
+import io.github.brenoepics.at4j.core.cache.TranslationCache;
+import io.github.brenoepics.at4j.core.ratelimit.AdaptiveConcurrencyLimit;
+import io.github.brenoepics.at4j.core.ratelimit.CharacterRateLimiter;
+import io.github.brenoepics.at4j.core.ratelimit.CircuitBreaker;
+import io.github.brenoepics.at4j.core.ratelimit.PendingRequestPolicy;
+import io.github.brenoepics.at4j.core.ratelimit.RetryPolicy;
+import io.github.brenoepics.at4j.core.thread.ThreadPoolImpl;
 import io.github.brenoepics.at4j.util.logging.ProtectedLogger;
+import io.github.brenoepics.at4j.util.rest.OriginCaptureMode;
+import io.github.brenoepics.at4j.util.rest.RestEndpoint;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
 import java.net.ProxySelector;
+import java.net.URI;
 import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -18,13 +33,31 @@ import java.util.concurrent.ExecutorService;
  */
 public class AzureApiBuilder {
   private BaseURL baseURL;
+  private URI baseURI;
   private String subscriptionKey;
   private String subscriptionRegion;
   private ProxySelector proxySelector;
+  private HttpClient.Version httpVersion = HttpClient.Version.HTTP_1_1;
+  private int prewarmConnections = 0;
+  private int requestCompressionThreshold = 0;
+  private boolean virtualThreads = true;
+  private int maxPendingRequests = 0;
+  private PendingRequestPolicy pendingRequestPolicy = PendingRequestPolicy.REJECT;
+  private final List<CharacterRateLimiter> characterLimiters = new ArrayList<>();
+  private final Map<RestEndpoint, AdaptiveConcurrencyLimit> adaptiveConcurrency =
+      new EnumMap<>(RestEndpoint.class);
+  private RetryPolicy retryPolicy;
+  private int circuitBreakerThreshold = 0;
+  private Duration circuitBreakerOpenDuration;
   private SSLContext sslContext;
   private SSLParameters sslParameters;
   private Duration connectTimeout;
+  private Duration requestTimeout;
   private ExecutorService executorService;
+  private TranslationCache translationCache;
+  private OriginCaptureMode originCaptureMode = OriginCaptureMode.FULL;
+  private final Map<RestEndpoint, Integer> maxConcurrentRequests =
+      new EnumMap<>(RestEndpoint.class);
 
   /** Default constructor initializes the base URL to the global endpoint. */
   public AzureApiBuilder() {
@@ -43,6 +76,31 @@ public class AzureApiBuilder {
     return this;
   }
 
+  /**
+   * Sets a custom base URI requests are sent to instead of the {@link #baseURL(BaseURL) base URL},
+   * e.g. a caching gateway, a local sidecar or a mock server. The endpoints are appended to the
+   * path of the URI, so {@code http://localhost:8080/translator} sends translations to {@code
+   * http://localhost:8080/translator/translate}.
+   *
+   * @param baseURI The base URI, with the scheme http or https.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @throws IllegalArgumentException If the URI has no host, another scheme, a query or a
+   *     fragment.
+   */
+  public AzureApiBuilder baseURI(URI baseURI) {
+    if (baseURI.getHost() == null
+        || !("http".equalsIgnoreCase(baseURI.getScheme())
+            || "https".equalsIgnoreCase(baseURI.getScheme()))) {
+      throw new IllegalArgumentException("The base URI must be an absolute http or https URI");
+    }
+    if (baseURI.getRawQuery() != null || baseURI.getRawFragment() != null) {
+      throw new IllegalArgumentException("The base URI must not have a query or a fragment");
+    }
+
+    this.baseURI = baseURI;
+    return this;
+  }
+
   /**
    * Sets the subscription key for accessing the Azure API.
    *
@@ -85,6 +143,68 @@ public class AzureApiBuilder {
     return this;
   }
 
+  /**
+   * Sets the preferred HTTP version. By default, HTTP/1.1 is used, so every concurrent request
+   * needs its own connection. With {@link HttpClient.Version#HTTP_2 HTTP/2}, concurrent requests
+   * share multiplexed connections, which saves handshakes when combined with {@link
+   * #maxConcurrentRequests(RestEndpoint, int)}. If the server does not support HTTP/2, the client
+   * falls back to HTTP/1.1.
+   *
+   * @param httpVersion The preferred HTTP version.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @see <a
+   *     href="https://docs.oracle.com/en/java/javase/11/docs/api/java.net.http/java/net/http/HttpClient.Builder.html#version(java.net.http.HttpClient.Version)"
+   *     >HTTP Version</a>
+   */
+  public AzureApiBuilder httpVersion(HttpClient.Version httpVersion) {
+    this.httpVersion = Objects.requireNonNull(httpVersion);
+    return this;
+  }
+
+  /**
+   * Sets the amount of connections which are opened in the background once the api is built, so
+   * the first requests don't pay for the DNS lookup and the TCP and TLS handshakes. By default, no
+   * connections are opened in advance.
+   *
+   * <p>The warm-up requests are sent right away, past the request queue: they don't count against
+   * the rate-limits or the maximum of pending requests, and an open circuit breaker doesn't stop
+   * them. Keep the amount close to the concurrency of your endpoints. With {@link
+   * HttpClient.Version#HTTP_2}, the {@link HttpClient} multiplexes concurrent requests over a
+   * single connection, so only one connection is opened regardless of the amount.
+   *
+   * @param connections The amount of connections to open, or 0 to open none.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @throws IllegalArgumentException If the amount of connections is negative.
+   * @see AzureApi#prewarmConnections(int)
+   */
+  public AzureApiBuilder prewarmConnections(int connections) {
+    if (connections < 0) {
+      throw new IllegalArgumentException("The amount of connections must not be negative");
+    }
+
+    this.prewarmConnections = connections;
+    return this;
+  }
+
+  /**
+   * Sets the minimum size of request bodies which are sent gzip-compressed. This pays off for long
+   * texts like HTML documents, but only if the endpoint accepts compressed bodies, e.g. a gateway
+   * in front of Azure. By default, request bodies are not compressed. Responses are always
+   * requested compressed.
+   *
+   * @param bytes The minimum size of a body in bytes, or 0 to never compress.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @throws IllegalArgumentException If the size is negative.
+   */
+  public AzureApiBuilder requestCompressionThreshold(int bytes) {
+    if (bytes < 0) {
+      throw new IllegalArgumentException("The compression threshold must not be negative");
+    }
+
+    this.requestCompressionThreshold = bytes;
+    return this;
+  }
+
   /**
    * Sets the connect timeout for the Azure API.
    *
@@ -99,6 +219,29 @@ public class AzureApiBuilder {
     return this;
   }
 
+  /**
+   * Sets the default time a request may take, from queueing it until its response arrived. A
+   * request which takes longer is removed from its queue or, if it is in-flight already, its
+   * exchange is aborted, and it fails with a {@link java.util.concurrent.TimeoutException}. It can
+   * be overridden per translation with {@link
+   * io.github.brenoepics.at4j.data.request.TranslateParams#setTimeout(Duration)}. By default,
+   * requests don't time out.
+   *
+   * <p>Aborting an in-flight exchange requires Java 16 or later. On older versions, the future
+   * still fails, but the {@link HttpClient} keeps the connection busy until the response arrived.
+   *
+   * @param requestTimeout The default timeout, or {@code null} if requests don't time out.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @throws IllegalArgumentException If the timeout is not positive.
+   */
+  public AzureApiBuilder requestTimeout(Duration requestTimeout) {
+    if (requestTimeout != null && (requestTimeout.isNegative() || requestTimeout.isZero())) {
+      throw new IllegalArgumentException("The request timeout must be positive");
+    }
+    this.requestTimeout = requestTimeout;
+    return this;
+  }
+
   /**
    * Sets the SSL context for the Azure API.
    *
@@ -141,6 +284,170 @@ public class AzureApiBuilder {
     return this;
   }
 
+  /**
+   * Sets whether the internal tasks run on virtual threads if no {@link
+   * #executorService(ExecutorService) executor service} is set. Virtual threads are used by default
+   * on Java 21 or newer, so blocked tasks, e.g. waiting for a rate-limit, don't occupy a platform
+   * thread. On older Java versions, this setting has no effect.
+   *
+   * @param virtualThreads Whether virtual threads are used if supported.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @see ThreadPoolImpl#newVirtualThreadExecutor()
+   */
+  public AzureApiBuilder virtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+    return this;
+  }
+
+  /**
+   * Sets the maximum amount of requests to the given endpoint which may be in-flight at once. By
+   * default, requests to the same endpoint are sent one after another. Rate limits reported by
+   * Azure are honored regardless of this setting.
+   *
+   * @param endpoint The endpoint to configure.
+   * @param maxConcurrentRequests The maximum amount of concurrent requests, at least 1.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @throws IllegalArgumentException If the maximum is less than 1.
+   */
+  public AzureApiBuilder maxConcurrentRequests(RestEndpoint endpoint, int maxConcurrentRequests) {
+    if (maxConcurrentRequests < 1) {
+      throw new IllegalArgumentException("The maximum of concurrent requests must be at least 1");
+    }
+
+    this.maxConcurrentRequests.put(endpoint, maxConcurrentRequests);
+    return this;
+  }
+
+  /**
+   * Lets the maximum amount of requests to the given endpoint which may be in-flight at once adapt
+   * to Azure. It starts at the minimum and grows by one request while the latency is stable. On a
+   * 429 response, it is halved, and if the latency grows, it shrinks slightly. This overrides
+   * {@link #maxConcurrentRequests(RestEndpoint, int)} for the endpoint.
+   *
+   * @param endpoint The endpoint to configure.
+   * @param minConcurrentRequests The minimum amount of concurrent requests, at least 1.
+   * @param maxConcurrentRequests The maximum amount of concurrent requests.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @throws IllegalArgumentException If the minimum is less than 1 or exceeds the maximum.
+   * @see AdaptiveConcurrencyLimit
+   */
+  public AzureApiBuilder adaptiveConcurrency(
+      RestEndpoint endpoint, int minConcurrentRequests, int maxConcurrentRequests) {
+    adaptiveConcurrency.put(
+        endpoint, new AdaptiveConcurrencyLimit(minConcurrentRequests, maxConcurrentRequests));
+    return this;
+  }
+
+  /**
+   * Limits the amount of pending requests, which are all queued and in-flight requests. By default,
+   * the amount is unlimited, so the queues grow without bound if Azure slows down. Requests
+   * exceeding the limit either fail immediately or wait until another request finished.
+   *
+   * @param maxPendingRequests The maximum amount of pending requests, or 0 for no limit.
+   * @param policy What happens to requests which exceed the limit.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @throws IllegalArgumentException If the maximum is negative.
+   * @see PendingRequestPolicy
+   */
+  public AzureApiBuilder maxPendingRequests(int maxPendingRequests, PendingRequestPolicy policy) {
+    if (maxPendingRequests < 0) {
+      throw new IllegalArgumentException("The maximum of pending requests must not be negative");
+    }
+
+    this.maxPendingRequests = maxPendingRequests;
+    this.pendingRequestPolicy = Objects.requireNonNull(policy);
+    return this;
+  }
+
+  /**
+   * Limits the amount of translated characters per period, e.g. to the characters per hour of your
+   * pricing tier. Translations are delayed until their characters are available, so the throughput
+   * stays just below the limit instead of running into 429 responses. Several limits can be set,
+   * e.g. one per hour and one per minute, and all of them apply. By default, characters are not
+   * limited.
+   *
+   * @param characters The maximum amount of characters per period.
+   * @param period The period.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @throws IllegalArgumentException If the characters or the period are not positive.
+   * @see CharacterRateLimiter
+   */
+  public AzureApiBuilder characterLimit(long characters, Duration period) {
+    characterLimiters.add(new CharacterRateLimiter(characters, period));
+    return this;
+  }
+
+  /**
+   * Sets the policy for retrying requests which failed with a transient error, e.g. a connection
+   * reset or a 503 response. Failed requests are queued again after a jittered exponential backoff,
+   * within a budget of retries. By default, failed requests are not retried.
+   *
+   * @param retryPolicy The policy, or {@code null} to not retry failed requests.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @see RetryPolicy
+   */
+  public AzureApiBuilder retryPolicy(RetryPolicy retryPolicy) {
+    this.retryPolicy = retryPolicy;
+    return this;
+  }
+
+  /**
+   * Protects every endpoint with a circuit breaker. Once Azure failed the given amount of times in
+   * a row, requests to the endpoint fail immediately with a {@link
+   * io.github.brenoepics.at4j.core.exceptions.CircuitBreakerOpenException} instead of waiting for
+   * their own timeout. After the open duration, a single probe request checks if Azure recovered.
+   * By default, there are no circuit breakers.
+   *
+   * @param failureThreshold The amount of failures in a row which open a breaker, at least 1.
+   * @param openDuration How long a breaker stays open before it lets a probe through.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @throws IllegalArgumentException If the threshold is less than 1 or the duration is not
+   *     positive.
+   * @see CircuitBreaker
+   */
+  public AzureApiBuilder circuitBreaker(int failureThreshold, Duration openDuration) {
+    if (failureThreshold < 1) {
+      throw new IllegalArgumentException("The failure threshold must be at least 1");
+    }
+    if (openDuration.isNegative() || openDuration.isZero()) {
+      throw new IllegalArgumentException("The open duration must be positive");
+    }
+
+    this.circuitBreakerThreshold = failureThreshold;
+    this.circuitBreakerOpenDuration = openDuration;
+    return this;
+  }
+
+  /**
+   * Sets the cache for translations. Texts whose translation is cached are not sent to Azure
+   * again, which saves requests and characters of the subscription quota. By default, nothing is
+   * cached.
+   *
+   * @param translationCache The cache for translations, e.g. an {@link
+   *     io.github.brenoepics.at4j.core.cache.InMemoryTranslationCache}.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @see TranslationCache
+   */
+  public AzureApiBuilder translationCache(TranslationCache translationCache) {
+    this.translationCache = translationCache;
+    return this;
+  }
+
+  /**
+   * Sets how the origin of requests is captured. The origin is the cause of every {@link
+   * io.github.brenoepics.at4j.core.exceptions.AzureException} and tells where the failed request
+   * was created. By default, the complete stack trace is captured for every request, which can be
+   * noticeable for services with many requests.
+   *
+   * @param originCaptureMode How the origin of requests is captured.
+   * @return The current instance of AzureApiBuilder for method chaining.
+   * @see OriginCaptureMode
+   */
+  public AzureApiBuilder originCaptureMode(OriginCaptureMode originCaptureMode) {
+    this.originCaptureMode = Objects.requireNonNull(originCaptureMode);
+    return this;
+  }
+
   /**
    * Builds and returns an instance of AzureApi with the configured parameters.
    *
@@ -154,7 +461,7 @@ public class AzureApiBuilder {
     }
 
     // The HTTP client used by the Azure API.
-    HttpClient.Builder httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1);
+    HttpClient.Builder httpClient = HttpClient.newBuilder().version(httpVersion);
 
     if (proxySelector != null) {
       httpClient.proxy(proxySelector);
@@ -172,11 +479,48 @@ public class AzureApiBuilder {
       httpClient.connectTimeout(connectTimeout);
     }
 
-    if (executorService != null) {
-      httpClient.executor(executorService);
+    ExecutorService executor = executorService;
+    if (executor == null && virtualThreads) {
+      executor = ThreadPoolImpl.newVirtualThreadExecutor().orElse(null);
     }
 
-    return new AzureApiImpl<>(
-        httpClient.build(), baseURL, subscriptionKey, subscriptionRegion, executorService);
+    if (executor != null) {
+      httpClient.executor(executor);
+    }
+
+    AzureApiImpl<?> api =
+        new AzureApiImpl<>(
+            httpClient.build(),
+            baseURL,
+            baseURI,
+            subscriptionKey,
+            subscriptionRegion,
+            executor,
+            translationCache,
+            originCaptureMode);
+    maxConcurrentRequests.forEach(api.getRatelimitManager()::setMaxConcurrentRequests);
+    api.setRequestCompressionThreshold(requestCompressionThreshold);
+    api.setRequestTimeout(requestTimeout);
+    api.getRatelimitManager().setMaxPendingRequests(maxPendingRequests, pendingRequestPolicy);
+    characterLimiters.forEach(api.getRatelimitManager()::addCharacterLimiter);
+    api.getRatelimitManager().setRetryPolicy(retryPolicy);
+    if (circuitBreakerThreshold > 0) {
+      for (RestEndpoint endpoint : RestEndpoint.values()) {
+        api.getRatelimitManager()
+            .setCircuitBreaker(
+                endpoint, new CircuitBreaker(circuitBreakerThreshold, circuitBreakerOpenDuration));
+      }
+    }
+    // Every api learns its own limits
+    adaptiveConcurrency.forEach(
+        (endpoint, limit) ->
+            api.getRatelimitManager()
+                .setAdaptiveConcurrency(
+                    endpoint,
+                    new AdaptiveConcurrencyLimit(limit.getMinLimit(), limit.getMaxLimit())));
+    if (prewarmConnections > 0) {
+      api.prewarmConnections(prewarmConnections);
+    }
+    return api;
   }
 }
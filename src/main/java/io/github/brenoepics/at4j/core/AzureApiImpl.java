@@ -1,25 +1,40 @@
 package io.github.brenoepics.at4j.core;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.brenoepics.at4j.AT4J;
 import io.github.brenoepics.at4j.AzureApi;
 import io.github.brenoepics.at4j.azure.BaseURL;
 import io.github.brenoepics.at4j.azure.lang.Language;
+import io.github.brenoepics.at4j.core.cache.TranslationCache;
+import io.github.brenoepics.at4j.core.cache.TranslationCacheKey;
 import io.github.brenoepics.at4j.core.ratelimit.RateLimitManager;
 import io.github.brenoepics.at4j.core.thread.ThreadPool;
 import io.github.brenoepics.at4j.core.thread.ThreadPoolImpl;
+import io.github.brenoepics.at4j.data.TranslationResult;
 import io.github.brenoepics.at4j.data.request.AvailableLanguagesParams;
 import io.github.brenoepics.at4j.data.request.DetectLanguageParams;
 import io.github.brenoepics.at4j.data.request.TranslateParams;
 import io.github.brenoepics.at4j.data.response.DetectResponse;
 import io.github.brenoepics.at4j.data.response.TranslationResponse;
+import io.github.brenoepics.at4j.util.logging.LoggerUtil;
 import io.github.brenoepics.at4j.util.rest.RestEndpoint;
+import io.github.brenoepics.at4j.util.rest.OriginCaptureMode;
 import io.github.brenoepics.at4j.util.rest.RestMethod;
 import io.github.brenoepics.at4j.util.rest.RestRequest;
+import java.net.URI;
 import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
 
 /**
  * This class is an implementation of the AzureApi interface. It provides methods to interact with
@@ -27,12 +42,17 @@ import java.util.concurrent.ExecutorService;
  */
 public class AzureApiImpl<T> implements AzureApi {
 
+  private static final Logger logger = LoggerUtil.getLogger(AzureApiImpl.class);
+
   /** The Http Client for this instance. */
   private final HttpClient httpClient;
 
   /** The BaseURL for this instance. */
   private final BaseURL baseURL;
 
+  /** The base URI requests are sent to. */
+  private final URI baseURI;
+
   /** The subscription key for this instance. */
   private final String subscriptionKey;
 
@@ -48,6 +68,18 @@ public class AzureApiImpl<T> implements AzureApi {
   /** The thread pool which is used internally. */
   private final ThreadPool threadPool;
 
+  /** The cache for translations, or null if translations are not cached. */
+  private final TranslationCache translationCache;
+
+  /** How the origin of requests is captured. */
+  private final OriginCaptureMode originCaptureMode;
+
+  /** The minimum size of request bodies which are sent compressed, or 0 to never compress. */
+  private volatile int requestCompressionThreshold = 0;
+
+  /** The default timeout of requests, or {@code null} if requests don't time out by default. */
+  private volatile Duration requestTimeout = null;
+
   /**
    * Constructor for AzureApiImpl.
    *
@@ -62,11 +94,64 @@ public class AzureApiImpl<T> implements AzureApi {
       String subscriptionKey,
       String subscriptionRegion,
       ExecutorService executor) {
+    this(httpClient, baseURL, subscriptionKey, subscriptionRegion, executor, null);
+  }
+
+  /**
+   * Constructor for AzureApiImpl.
+   *
+   * @param httpClient The Http Client for this instance.
+   * @param baseURL The BaseURL for this instance.
+   * @param subscriptionKey The subscription key for this instance.
+   * @param subscriptionRegion The subscription region for this instance.
+   * @param translationCache The cache for translations, or null if translations are not cached.
+   */
+  public AzureApiImpl(
+      HttpClient httpClient,
+      BaseURL baseURL,
+      String subscriptionKey,
+      String subscriptionRegion,
+      ExecutorService executor,
+      TranslationCache translationCache) {
+    this(
+        httpClient,
+        baseURL,
+        null,
+        subscriptionKey,
+        subscriptionRegion,
+        executor,
+        translationCache,
+        OriginCaptureMode.FULL);
+  }
+
+  /**
+   * Constructor for AzureApiImpl.
+   *
+   * @param httpClient The Http Client for this instance.
+   * @param baseURL The BaseURL for this instance.
+   * @param baseURI The base URI requests are sent to, or null to send them to the BaseURL.
+   * @param subscriptionKey The subscription key for this instance.
+   * @param subscriptionRegion The subscription region for this instance.
+   * @param translationCache The cache for translations, or null if translations are not cached.
+   * @param originCaptureMode How the origin of requests is captured.
+   */
+  public AzureApiImpl(
+      HttpClient httpClient,
+      BaseURL baseURL,
+      URI baseURI,
+      String subscriptionKey,
+      String subscriptionRegion,
+      ExecutorService executor,
+      TranslationCache translationCache,
+      OriginCaptureMode originCaptureMode) {
     this.httpClient = httpClient;
     this.baseURL = baseURL;
+    this.baseURI = baseURI == null ? URI.create("https://" + baseURL.getUrl()) : baseURI;
     this.subscriptionKey = subscriptionKey;
     this.subscriptionRegion = subscriptionRegion;
     this.threadPool = new ThreadPoolImpl(executor);
+    this.translationCache = translationCache;
+    this.originCaptureMode = originCaptureMode;
   }
 
   @Override
@@ -74,6 +159,49 @@ public class AzureApiImpl<T> implements AzureApi {
     return this.baseURL;
   }
 
+  @Override
+  public URI getBaseURI() {
+    return this.baseURI;
+  }
+
+  @Override
+  public int getRequestCompressionThreshold() {
+    return requestCompressionThreshold;
+  }
+
+  /**
+   * Sets the minimum size of request bodies which are sent gzip-compressed.
+   *
+   * @param requestCompressionThreshold The minimum size in bytes, or 0 to never compress.
+   * @throws IllegalArgumentException If the threshold is negative.
+   */
+  public void setRequestCompressionThreshold(int requestCompressionThreshold) {
+    if (requestCompressionThreshold < 0) {
+      throw new IllegalArgumentException("The compression threshold must not be negative");
+    }
+    this.requestCompressionThreshold = requestCompressionThreshold;
+  }
+
+  @Override
+  public Optional<Duration> getRequestTimeout() {
+    return Optional.ofNullable(requestTimeout);
+  }
+
+  /**
+   * Sets the default time a request may take, from queueing it until its response arrived. An
+   * in-flight exchange is only aborted on Java 16 or later, see {@link
+   * io.github.brenoepics.at4j.AzureApiBuilder#requestTimeout(Duration)}.
+   *
+   * @param requestTimeout The default timeout, or {@code null} if requests don't time out.
+   * @throws IllegalArgumentException If the timeout is not positive.
+   */
+  public void setRequestTimeout(Duration requestTimeout) {
+    if (requestTimeout != null && (requestTimeout.isNegative() || requestTimeout.isZero())) {
+      throw new IllegalArgumentException("The request timeout must be positive");
+    }
+    this.requestTimeout = requestTimeout;
+  }
+
   @Override
   public String getSubscriptionKey() {
     return this.subscriptionKey;
@@ -89,21 +217,128 @@ public class AzureApiImpl<T> implements AzureApi {
     return threadPool;
   }
 
+  @Override
+  public Optional<TranslationCache> getTranslationCache() {
+    return Optional.ofNullable(translationCache);
+  }
+
+  @Override
+  public OriginCaptureMode getOriginCaptureMode() {
+    return originCaptureMode;
+  }
+
   @Override
   public CompletableFuture<Optional<TranslationResponse>> translate(TranslateParams params) {
     if (params.getTexts() == null || params.getTexts().isEmpty()) {
       return CompletableFuture.completedFuture(Optional.empty());
     }
 
+    if (translationCache != null) {
+      return translateCached(params);
+    }
+    return translateUncached(params);
+  }
+
+  /**
+   * Translates the given params, serving every text whose result is cached from the translation
+   * cache. Only the remaining texts are sent to Azure, and their results are cached afterward.
+   *
+   * @param params The params of the translation.
+   * @return The response, with the results in the order of the texts.
+   */
+  private CompletableFuture<Optional<TranslationResponse>> translateCached(TranslateParams params) {
+    List<String> texts = new ArrayList<>(params.getTexts().values());
+    TranslationResult[] results = new TranslationResult[texts.size()];
+    List<Integer> missingIndexes = new ArrayList<>();
+    List<String> missingTexts = new ArrayList<>();
+
+    for (int i = 0; i < texts.size(); i++) {
+      Optional<TranslationResult> cached =
+          translationCache.get(TranslationCacheKey.of(params, texts.get(i)));
+      if (cached.isPresent()) {
+        results[i] = cached.get();
+      } else {
+        missingIndexes.add(i);
+        missingTexts.add(texts.get(i));
+      }
+    }
+
+    if (missingTexts.isEmpty()) {
+      return CompletableFuture.completedFuture(Optional.of(toResponse(results)));
+    }
+
+    CompletableFuture<Optional<TranslationResponse>> uncached =
+        translateUncached(params.withTexts(missingTexts));
+    return propagateCancellation(
+        uncached.thenApply(
+            response -> {
+              if (response.isEmpty()) {
+                return response;
+              }
+
+              // Texts without translations are skipped in the response, so the results are
+              // matched by their base text instead of their position
+              List<TranslationResult> fetched = response.get().getResultList();
+              int cursor = 0;
+              for (int i = 0; i < missingTexts.size() && cursor < fetched.size(); i++) {
+                TranslationResult result = fetched.get(cursor);
+                String text = missingTexts.get(i);
+                if (Objects.equals(result.getBaseText(), text)) {
+                  results[missingIndexes.get(i)] = result;
+                  translationCache.put(TranslationCacheKey.of(params, text), result);
+                  cursor++;
+                }
+              }
+              return Optional.of(toResponse(results));
+            }),
+        List.of(uncached));
+  }
+
+  /**
+   * Creates a response which contains the given results, skipping missing ones.
+   *
+   * @param results The results, in order.
+   * @return The response.
+   */
+  private static TranslationResponse toResponse(TranslationResult[] results) {
+    TranslationResponse response = new TranslationResponse();
+    for (TranslationResult result : results) {
+      if (result != null) {
+        response.addResult(result);
+      }
+    }
+    return response;
+  }
+
+  /**
+   * Sends the given params to Azure, split into multiple requests if they exceed the limits of a
+   * single request.
+   *
+   * @param params The params of the translation.
+   * @return The response.
+   */
+  private CompletableFuture<Optional<TranslationResponse>> translateUncached(
+      TranslateParams params) {
+    List<TranslateParams> chunks = params.split(AT4J.MAX_TEXT_ELEMENTS, AT4J.MAX_TEXT_CHARACTERS);
+    if (chunks.size() > 1) {
+      return joinChunks(
+          chunks.stream().map(this::translateUncached).collect(Collectors.toList()),
+          TranslationResponse::new,
+          (merged, response) -> response.getResultList().forEach(merged::addResult));
+    }
+
     RestRequest request = new RestRequest(this, RestMethod.POST, RestEndpoint.TRANSLATE);
-    request.setBody(params.getBody());
+    request.setBody(params.getBodyBytes(objectMapper.getFactory()));
+    request.setCharacterCost(params.getCharacterCount());
+    request.setPriority(params.getPriority());
+    request.setTimeout(params.getTimeout());
     request.addQueryParameters(params.getQueryParameters());
 
     if (params.getTargetLanguages() != null) {
       params.getTargetLanguages().forEach(lang -> request.addQueryParameter("to", lang));
     }
 
-    return request.execute(params::handleResponse);
+    return request.execute(params::parseResponse);
   }
 
   @Override
@@ -112,10 +347,75 @@ public class AzureApiImpl<T> implements AzureApi {
       return CompletableFuture.completedFuture(Optional.empty());
     }
 
+    List<DetectLanguageParams> chunks =
+        params.split(AT4J.MAX_TEXT_ELEMENTS, AT4J.MAX_TEXT_CHARACTERS);
+    if (chunks.size() > 1) {
+      return joinChunks(
+          chunks.stream().map(this::detectLanguage).collect(Collectors.toList()),
+          DetectResponse::new,
+          (merged, response) ->
+              response.getDetectedLanguages().forEach(merged::addDetectedLanguage));
+    }
+
     RestRequest request = new RestRequest(this, RestMethod.POST, RestEndpoint.DETECT);
-    request.setBody(params.getBody());
+    request.setBody(params.getBodyBytes(objectMapper.getFactory()));
+    request.setPriority(params.getPriority());
+    request.setTimeout(params.getTimeout());
 
-    return request.execute(params::handleResponse);
+    return request.execute(params::parseResponse);
+  }
+
+  /**
+   * Joins the responses of requests which were split into chunks. The responses are merged in the
+   * order of the chunks, once all of them completed.
+   *
+   * @param chunks The futures of the chunk requests, in order.
+   * @param responseFactory Creates the merged response.
+   * @param merger Adds the results of a chunk response to the merged response.
+   * @param <R> The type of the response.
+   * @return A future which contains the merged response, or is empty if no chunk had a response.
+   */
+  private static <R> CompletableFuture<Optional<R>> joinChunks(
+      List<CompletableFuture<Optional<R>>> chunks,
+      Supplier<R> responseFactory,
+      BiConsumer<R, R> merger) {
+    return propagateCancellation(
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0]))
+            .thenApply(
+                ignored -> {
+                  R merged = null;
+                  for (CompletableFuture<Optional<R>> chunk : chunks) {
+                    Optional<R> response = chunk.join();
+                    if (response.isPresent()) {
+                      if (merged == null) {
+                        merged = responseFactory.get();
+                      }
+                      merger.accept(merged, response.get());
+                    }
+                  }
+                  return Optional.ofNullable(merged);
+                }),
+        chunks);
+  }
+
+  /**
+   * Cancels the given sources once the given future is cancelled, so their requests are aborted,
+   * too. Derived futures don't do that on their own.
+   *
+   * @param future The derived future.
+   * @param sources The futures the derived future depends on.
+   * @param <R> The type of the derived future.
+   * @return The derived future.
+   */
+  private static <R> CompletableFuture<R> propagateCancellation(
+      CompletableFuture<R> future, List<? extends CompletableFuture<?>> sources) {
+    future.whenComplete(
+        (result, throwable) -> {
+          if (future.isCancelled()) {
+            sources.forEach(source -> source.cancel(false));
+          }
+        });
+    return future;
   }
 
   @Override
@@ -131,9 +431,31 @@ public class AzureApiImpl<T> implements AzureApi {
     return request.execute(params::handleResponse);
   }
 
+  @Override
+  public CompletableFuture<Void> prewarmConnections(int connections) {
+    if (connections < 1) {
+      throw new IllegalArgumentException("The amount of connections must be at least 1");
+    }
+
+    CompletableFuture<?>[] warmUps = new CompletableFuture<?>[connections];
+    for (int i = 0; i < connections; i++) {
+      warmUps[i] =
+          new RestRequest(this, RestMethod.GET, RestEndpoint.LANGUAGES, false)
+              .executeAsync()
+              .handle(
+                  (result, throwable) -> {
+                    if (throwable != null) {
+                      logger.debug("Failed to warm up a connection to Azure", throwable);
+                    }
+                    return null;
+                  });
+    }
+    return CompletableFuture.allOf(warmUps);
+  }
+
   @Override
   public void disconnect() {
-    this.threadPool.getExecutorService().shutdown();
+    this.threadPool.shutdown();
   }
 
   /**
@@ -0,0 +1,97 @@
+package io.github.brenoepics.at4j.core.batch;
+
+import io.github.brenoepics.at4j.AT4J;
+import java.time.Duration;
+
+/**
+ * This class describes how single translate calls are coalesced into one request. A batch is sent
+ * as soon as it reached the maximum amount of text elements or characters, or when the linger time
+ * of its first call passed.
+ *
+ * @see io.github.brenoepics.at4j.AzureApi#batching(BatchPolicy)
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class BatchPolicy {
+  // The maximum amount of text elements in one batch
+  private int maxElements = AT4J.MAX_TEXT_ELEMENTS;
+  // The maximum amount of characters in one batch
+  private int maxCharacters = AT4J.MAX_TEXT_CHARACTERS;
+  // How long a batch waits for more calls before it is sent
+  private Duration linger = Duration.ofMillis(5);
+
+  /**
+   * Sets the maximum amount of text elements in one batch.
+   *
+   * @param maxElements The maximum amount of text elements, between 1 and {@link
+   *     AT4J#MAX_TEXT_ELEMENTS}.
+   * @return The current instance of BatchPolicy.
+   * @throws IllegalArgumentException If the value is out of range.
+   */
+  public BatchPolicy setMaxElements(int maxElements) {
+    if (maxElements < 1 || maxElements > AT4J.MAX_TEXT_ELEMENTS) {
+      throw new IllegalArgumentException(
+          "The maximum of elements must be between 1 and " + AT4J.MAX_TEXT_ELEMENTS);
+    }
+    this.maxElements = maxElements;
+    return this;
+  }
+
+  /**
+   * Sets the maximum amount of characters (including spaces) in one batch.
+   *
+   * @param maxCharacters The maximum amount of characters, between 1 and {@link
+   *     AT4J#MAX_TEXT_CHARACTERS}.
+   * @return The current instance of BatchPolicy.
+   * @throws IllegalArgumentException If the value is out of range.
+   */
+  public BatchPolicy setMaxCharacters(int maxCharacters) {
+    if (maxCharacters < 1 || maxCharacters > AT4J.MAX_TEXT_CHARACTERS) {
+      throw new IllegalArgumentException(
+          "The maximum of characters must be between 1 and " + AT4J.MAX_TEXT_CHARACTERS);
+    }
+    this.maxCharacters = maxCharacters;
+    return this;
+  }
+
+  /**
+   * Sets how long a batch waits for more calls before it is sent.
+   *
+   * @param linger The linger time, must not be negative.
+   * @return The current instance of BatchPolicy.
+   * @throws IllegalArgumentException If the linger time is negative.
+   */
+  public BatchPolicy setLinger(Duration linger) {
+    if (linger.isNegative()) {
+      throw new IllegalArgumentException("The linger time must not be negative");
+    }
+    this.linger = linger;
+    return this;
+  }
+
+  /**
+   * Returns the maximum amount of text elements in one batch.
+   *
+   * @return The maximum amount of text elements.
+   */
+  public int getMaxElements() {
+    return maxElements;
+  }
+
+  /**
+   * Returns the maximum amount of characters in one batch.
+   *
+   * @return The maximum amount of characters.
+   */
+  public int getMaxCharacters() {
+    return maxCharacters;
+  }
+
+  /**
+   * Returns how long a batch waits for more calls before it is sent.
+   *
+   * @return The linger time.
+   */
+  public Duration getLinger() {
+    return linger;
+  }
+}
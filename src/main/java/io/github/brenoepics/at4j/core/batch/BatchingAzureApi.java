@@ -0,0 +1,495 @@
+package io.github.brenoepics.at4j.core.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.brenoepics.at4j.AzureApi;
+import io.github.brenoepics.at4j.azure.BaseURL;
+import io.github.brenoepics.at4j.azure.lang.Language;
+import io.github.brenoepics.at4j.core.cache.TranslationCache;
+import io.github.brenoepics.at4j.core.ratelimit.RateLimitManager;
+import io.github.brenoepics.at4j.core.ratelimit.RequestPriority;
+import io.github.brenoepics.at4j.core.thread.ThreadPool;
+import io.github.brenoepics.at4j.data.TranslationResult;
+import io.github.brenoepics.at4j.data.request.AvailableLanguagesParams;
+import io.github.brenoepics.at4j.data.request.DetectLanguageParams;
+import io.github.brenoepics.at4j.data.request.TranslateParams;
+import io.github.brenoepics.at4j.data.response.DetectResponse;
+import io.github.brenoepics.at4j.data.response.TranslationResponse;
+import io.github.brenoepics.at4j.util.logging.LoggerUtil;
+import io.github.brenoepics.at4j.util.rest.OriginCaptureMode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+
+/**
+ * An {@link AzureApi} which coalesces concurrent {@link #translate(TranslateParams)} calls with
+ * identical options into a single request, and fans the results back out to each caller. All other
+ * calls are passed to the wrapped api unchanged.
+ *
+ * <p>A cancelled call is removed from its batch while the batch is still collecting calls. Once
+ * every call of a sent batch was cancelled, the batched request is cancelled, too.
+ *
+ * @see AzureApi#batching(BatchPolicy)
+ */
+public class BatchingAzureApi implements AzureApi {
+
+  /** The (logger) of this class. */
+  private static final Logger logger = LoggerUtil.getLogger(BatchingAzureApi.class);
+
+  /** The api which sends the batched requests. */
+  private final AzureApi delegate;
+
+  /** The maximum amount of text elements in one batch. */
+  private final int maxElements;
+
+  /** The maximum amount of characters in one batch. */
+  private final int maxCharacters;
+
+  /** How long a batch waits for more calls, in milliseconds. */
+  private final long lingerMillis;
+
+  /** The batches which are still collecting calls. */
+  private final Map<BatchKey, Batch> openBatches = new HashMap<>();
+
+  /**
+   * Creates a new batching api.
+   *
+   * @param delegate The api which sends the batched requests.
+   * @param policy The policy which describes how calls are batched.
+   */
+  public BatchingAzureApi(AzureApi delegate, BatchPolicy policy) {
+    this.delegate = delegate;
+    this.maxElements = policy.getMaxElements();
+    this.maxCharacters = policy.getMaxCharacters();
+    this.lingerMillis = policy.getLinger().toMillis();
+  }
+
+  @Override
+  public CompletableFuture<Optional<TranslationResponse>> translate(TranslateParams params) {
+    Map<Integer, String> texts = params.getTexts();
+    if (texts == null
+        || texts.isEmpty()
+        || texts.size() > maxElements
+        || countCharacters(texts.values()) > maxCharacters) {
+      return delegate.translate(params);
+    }
+
+    PendingTranslation pending = new PendingTranslation(params);
+    List<Batch> ready = new ArrayList<>(2);
+    synchronized (openBatches) {
+      BatchKey key = new BatchKey(params);
+      Batch batch = openBatches.get(key);
+      if (batch != null && !batch.fits(pending)) {
+        openBatches.remove(key);
+        ready.add(batch);
+        batch = null;
+      }
+
+      if (batch == null) {
+        batch = new Batch(key, params);
+        openBatches.put(key, batch);
+        Batch lingering = batch;
+        batch.lingerTask =
+            getThreadPool()
+                .getScheduler()
+                .schedule(() -> expire(lingering), lingerMillis, TimeUnit.MILLISECONDS);
+      }
+
+      batch.add(pending);
+      pending.batch = batch;
+      if (batch.isFull()) {
+        openBatches.remove(key);
+        ready.add(batch);
+      }
+    }
+
+    ready.forEach(this::send);
+    pending.future.whenComplete(
+        (response, throwable) -> {
+          if (pending.future.isCancelled()) {
+            cancel(pending);
+          }
+        });
+    return pending.future;
+  }
+
+  /**
+   * Removes the given cancelled call from its batch if the batch was not sent yet. Otherwise, the
+   * batched request is cancelled once no call of the batch waits for it anymore.
+   *
+   * @param pending The cancelled call.
+   */
+  private void cancel(PendingTranslation pending) {
+    Batch batch = pending.batch;
+    CompletableFuture<?> request;
+    synchronized (openBatches) {
+      if (!batch.sent) {
+        batch.remove(pending);
+        if (batch.entries.isEmpty() && openBatches.remove(batch.key, batch)) {
+          batch.lingerTask.cancel(false);
+        }
+        return;
+      }
+      request = batch.request;
+    }
+
+    // If the request was not assigned yet, send checks for abandoned batches itself
+    if (request != null && batch.isAbandoned()) {
+      request.cancel(true);
+    }
+  }
+
+  /**
+   * Sends the given batch if it is still collecting calls.
+   *
+   * @param batch The batch whose linger time passed.
+   */
+  private void expire(Batch batch) {
+    synchronized (openBatches) {
+      if (!openBatches.remove(batch.key, batch)) {
+        return;
+      }
+    }
+    send(batch);
+  }
+
+  /** Sends all batches which are still collecting calls. */
+  private void flush() {
+    List<Batch> ready;
+    synchronized (openBatches) {
+      ready = new ArrayList<>(openBatches.values());
+      openBatches.clear();
+    }
+    ready.forEach(this::send);
+  }
+
+  /**
+   * Sends the given batch as a single request.
+   *
+   * @param batch The batch to send.
+   */
+  private void send(Batch batch) {
+    batch.lingerTask.cancel(false);
+
+    List<PendingTranslation> entries;
+    synchronized (openBatches) {
+      batch.sent = true;
+      entries = batch.entries;
+    }
+    if (entries.isEmpty()) {
+      return;
+    }
+
+    CompletableFuture<Optional<TranslationResponse>> request;
+    if (entries.size() == 1) {
+      request = delegate.translate(entries.get(0).params);
+    } else {
+      List<String> texts = new ArrayList<>(batch.elements);
+      entries.forEach(entry -> texts.addAll(entry.texts));
+      logger.debug("Sending {} translate calls as one request", entries.size());
+      request = delegate.translate(batch.template.withTexts(texts));
+    }
+
+    synchronized (openBatches) {
+      batch.request = request;
+    }
+    request.whenComplete(batch::complete);
+    if (batch.isAbandoned()) {
+      request.cancel(true);
+    }
+  }
+
+  /**
+   * Counts the characters of the given texts.
+   *
+   * @param texts The texts.
+   * @return The amount of characters.
+   */
+  private static int countCharacters(Collection<String> texts) {
+    int characters = 0;
+    for (String text : texts) {
+      characters += text == null ? 0 : text.length();
+    }
+    return characters;
+  }
+
+  /**
+   * Unwraps the cause of a failed future.
+   *
+   * @param throwable The exception the future completed with.
+   * @return The cause of the exception.
+   */
+  private static Throwable unwrap(Throwable throwable) {
+    return throwable instanceof CompletionException && throwable.getCause() != null
+        ? throwable.getCause()
+        : throwable;
+  }
+
+  @Override
+  public AzureApi batching(BatchPolicy policy) {
+    return new BatchingAzureApi(delegate, policy);
+  }
+
+  @Override
+  public BaseURL getBaseURL() {
+    return delegate.getBaseURL();
+  }
+
+  @Override
+  public URI getBaseURI() {
+    return delegate.getBaseURI();
+  }
+
+  @Override
+  public String getSubscriptionKey() {
+    return delegate.getSubscriptionKey();
+  }
+
+  @Override
+  public Optional<String> getSubscriptionRegion() {
+    return delegate.getSubscriptionRegion();
+  }
+
+  @Override
+  public ThreadPool getThreadPool() {
+    return delegate.getThreadPool();
+  }
+
+  @Override
+  public Optional<TranslationCache> getTranslationCache() {
+    return delegate.getTranslationCache();
+  }
+
+  @Override
+  public OriginCaptureMode getOriginCaptureMode() {
+    return delegate.getOriginCaptureMode();
+  }
+
+  @Override
+  public int getRequestCompressionThreshold() {
+    return delegate.getRequestCompressionThreshold();
+  }
+
+  @Override
+  public Optional<Duration> getRequestTimeout() {
+    return delegate.getRequestTimeout();
+  }
+
+  @Override
+  public CompletableFuture<Void> prewarmConnections(int connections) {
+    return delegate.prewarmConnections(connections);
+  }
+
+  /** Sends all pending batches and disconnects the wrapped api. */
+  @Override
+  public void disconnect() {
+    flush();
+    delegate.disconnect();
+  }
+
+  @Override
+  public CompletableFuture<Optional<Collection<Language>>> getAvailableLanguages(
+      AvailableLanguagesParams params) {
+    return delegate.getAvailableLanguages(params);
+  }
+
+  @Override
+  public CompletableFuture<Optional<DetectResponse>> detectLanguage(DetectLanguageParams params) {
+    return delegate.detectLanguage(params);
+  }
+
+  @Override
+  public <T, T3, T4> RateLimitManager<T, T3, T4> getRatelimitManager() {
+    return delegate.getRatelimitManager();
+  }
+
+  @Override
+  public HttpClient getHttpClient() {
+    return delegate.getHttpClient();
+  }
+
+  @Override
+  public ObjectMapper getObjectMapper() {
+    return delegate.getObjectMapper();
+  }
+
+  /** The options which must be identical for translate calls to share a batch. */
+  private static final class BatchKey {
+    private final Map<String, String> queryParameters;
+    private final List<String> targetLanguages;
+    private final RequestPriority priority;
+    private final Duration timeout;
+
+    private BatchKey(TranslateParams params) {
+      this.queryParameters = params.getQueryParameters();
+      this.targetLanguages =
+          params.getTargetLanguages() == null ? null : new ArrayList<>(params.getTargetLanguages());
+      this.priority = params.getPriority();
+      this.timeout = params.getTimeout();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof BatchKey)) {
+        return false;
+      }
+      BatchKey other = (BatchKey) obj;
+      return queryParameters.equals(other.queryParameters)
+          && Objects.equals(targetLanguages, other.targetLanguages)
+          && priority == other.priority
+          && Objects.equals(timeout, other.timeout);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(queryParameters, targetLanguages, priority, timeout);
+    }
+  }
+
+  /** A single translate call waiting for its batch. */
+  private static final class PendingTranslation {
+    private final TranslateParams params;
+    private final List<String> texts;
+    private final int characters;
+    private final CompletableFuture<Optional<TranslationResponse>> future =
+        new CompletableFuture<>();
+    // The batch of this call, guarded by the open batches
+    private Batch batch;
+    // The position of the first text of this call in its batch, guarded by the open batches
+    private int offset;
+
+    private PendingTranslation(TranslateParams params) {
+      this.params = params;
+      this.texts = new ArrayList<>(params.getTexts().values());
+      this.characters = countCharacters(texts);
+    }
+  }
+
+  /** A batch of translate calls with identical options. */
+  private final class Batch {
+    private final BatchKey key;
+    private final TranslateParams template;
+    private final List<PendingTranslation> entries = new ArrayList<>();
+    private int elements = 0;
+    private int characters = 0;
+    private ScheduledFuture<?> lingerTask;
+    // Whether the calls of this batch are final, guarded by the open batches
+    private boolean sent = false;
+    // The batched request, or null if it was not sent yet, guarded by the open batches
+    private CompletableFuture<?> request;
+
+    private Batch(BatchKey key, TranslateParams template) {
+      this.key = key;
+      this.template = template;
+    }
+
+    private boolean fits(PendingTranslation pending) {
+      return elements + pending.texts.size() <= maxElements
+          && characters + pending.characters <= maxCharacters;
+    }
+
+    private boolean isFull() {
+      return elements >= maxElements || characters >= maxCharacters;
+    }
+
+    private void add(PendingTranslation pending) {
+      entries.add(pending);
+      pending.offset = elements;
+      elements += pending.texts.size();
+      characters += pending.characters;
+    }
+
+    private void remove(PendingTranslation pending) {
+      if (entries.remove(pending)) {
+        elements -= pending.texts.size();
+        characters -= pending.characters;
+        // The texts of the following calls move up
+        entries.stream()
+            .filter(entry -> entry.offset > pending.offset)
+            .forEach(entry -> entry.offset -= pending.texts.size());
+      }
+    }
+
+    private boolean isAbandoned() {
+      return entries.stream().allMatch(entry -> entry.future.isCancelled());
+    }
+
+    /**
+     * Fans the response of the batched request out to the calls of this batch. Each call gets the
+     * results at the offsets of its texts. Texts for which Azure did not return a translation are
+     * left out of the response, so the offsets don't line up anymore. Then the calls are sent on
+     * their own instead, as results of equal texts could be given to the wrong call otherwise.
+     *
+     * @param response The response of the batched request.
+     * @param throwable The exception of the batched request, if it failed.
+     */
+    private void complete(Optional<TranslationResponse> response, Throwable throwable) {
+      if (throwable != null) {
+        Throwable cause = unwrap(throwable);
+        entries.forEach(entry -> entry.future.completeExceptionally(cause));
+        return;
+      }
+
+      if (response.isEmpty()) {
+        entries.forEach(entry -> entry.future.complete(Optional.empty()));
+        return;
+      }
+
+      if (entries.size() == 1) {
+        entries.get(0).future.complete(response);
+        return;
+      }
+
+      List<TranslationResult> results = response.get().getResultList();
+      if (results.size() != elements) {
+        logger.debug("Sending {} batched translate calls on their own", entries.size());
+        entries.forEach(this::resend);
+        return;
+      }
+
+      for (PendingTranslation entry : entries) {
+        List<TranslationResult> entryResults =
+            new ArrayList<>(results.subList(entry.offset, entry.offset + entry.texts.size()));
+        entry.future.complete(Optional.of(new TranslationResponse(entryResults)));
+      }
+    }
+
+    /**
+     * Sends the given call of this batch as a request of its own.
+     *
+     * @param entry The call.
+     */
+    private void resend(PendingTranslation entry) {
+      if (entry.future.isDone()) {
+        return;
+      }
+
+      CompletableFuture<Optional<TranslationResponse>> request = delegate.translate(entry.params);
+      request.whenComplete(
+          (response, throwable) -> {
+            if (throwable != null) {
+              entry.future.completeExceptionally(unwrap(throwable));
+            } else {
+              entry.future.complete(response);
+            }
+          });
+      entry.future.whenComplete(
+          (response, throwable) -> {
+            if (entry.future.isCancelled()) {
+              request.cancel(true);
+            }
+          });
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package io.github.brenoepics.at4j.core.cache;
+
+import io.github.brenoepics.at4j.data.Translation;
+import io.github.brenoepics.at4j.data.TranslationResult;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+
+/**
+ * A {@link TranslationCache} which keeps the results in memory. It is bounded by the total weight
+ * of its entries, which is the amount of characters of the cached text and its translations. When
+ * the bound is exceeded, the least recently used entries are evicted first. Optionally, entries
+ * expire a fixed time after they were written.
+ */
+public class InMemoryTranslationCache implements TranslationCache {
+
+  // The cached entries, in the order they were accessed
+  private final LinkedHashMap<TranslationCacheKey, Entry> entries =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  // The maximum total weight of all entries
+  private final long maximumWeight;
+
+  // How long an entry is valid after it was written, in nanoseconds, or 0 if it never expires
+  private final long timeToLiveNanos;
+
+  // The current total weight of all entries
+  private long weight = 0;
+
+  /**
+   * Creates a new cache whose entries never expire.
+   *
+   * @param maximumWeight The maximum amount of characters of all cached texts and translations.
+   */
+  public InMemoryTranslationCache(long maximumWeight) {
+    this(maximumWeight, Duration.ZERO);
+  }
+
+  /**
+   * Creates a new cache.
+   *
+   * @param maximumWeight The maximum amount of characters of all cached texts and translations.
+   * @param timeToLive How long an entry is valid after it was written, or {@link Duration#ZERO} if
+   *     entries never expire.
+   * @throws IllegalArgumentException If the maximum weight is not positive or the time to live is
+   *     negative.
+   */
+  public InMemoryTranslationCache(long maximumWeight, Duration timeToLive) {
+    if (maximumWeight <= 0) {
+      throw new IllegalArgumentException("The maximum weight must be positive");
+    }
+    if (timeToLive.isNegative()) {
+      throw new IllegalArgumentException("The time to live must not be negative");
+    }
+    this.maximumWeight = maximumWeight;
+    this.timeToLiveNanos = timeToLive.toNanos();
+  }
+
+  @Override
+  public synchronized Optional<TranslationResult> get(TranslationCacheKey key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return Optional.empty();
+    }
+
+    if (timeToLiveNanos != 0 && System.nanoTime() - entry.expiresAt >= 0) {
+      remove(key);
+      return Optional.empty();
+    }
+    return Optional.of(entry.result);
+  }
+
+  @Override
+  public synchronized void put(TranslationCacheKey key, TranslationResult result) {
+    int entryWeight = weigh(key, result);
+    remove(key);
+    if (entryWeight > maximumWeight) {
+      return;
+    }
+
+    entries.put(key, new Entry(result, entryWeight, System.nanoTime() + timeToLiveNanos));
+    weight += entryWeight;
+
+    Iterator<Entry> eldest = entries.values().iterator();
+    while (weight > maximumWeight && eldest.hasNext()) {
+      weight -= eldest.next().weight;
+      eldest.remove();
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    entries.clear();
+    weight = 0;
+  }
+
+  /**
+   * Gets the amount of cached entries, including expired entries which were not removed yet.
+   *
+   * @return The amount of cached entries.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Gets the current total weight of all cached entries.
+   *
+   * @return The amount of characters of all cached texts and translations.
+   */
+  public synchronized long getWeight() {
+    return weight;
+  }
+
+  /**
+   * Removes the entry with the given key, if present.
+   *
+   * @param key The key of the entry.
+   */
+  private void remove(TranslationCacheKey key) {
+    Entry removed = entries.remove(key);
+    if (removed != null) {
+      weight -= removed.weight;
+    }
+  }
+
+  /**
+   * Weighs an entry by the amount of characters of its text and translations.
+   *
+   * @param key The key of the entry.
+   * @param result The cached result.
+   * @return The weight of the entry, at least 1.
+   */
+  private static int weigh(TranslationCacheKey key, TranslationResult result) {
+    int characters = key.getText() == null ? 0 : key.getText().length();
+    if (result.getTranslations() != null) {
+      for (Translation translation : result.getTranslations()) {
+        characters += translation.getText() == null ? 0 : translation.getText().length();
+      }
+    }
+    return Math.max(characters, 1);
+  }
+
+  @Override
+  public String toString() {
+    return "InMemoryTranslationCache{" + "entries=" + size() + ", weight=" + getWeight() + '}';
+  }
+
+  /** A cached result. */
+  private static final class Entry {
+    private final TranslationResult result;
+    private final int weight;
+    private final long expiresAt;
+
+    private Entry(TranslationResult result, int weight, long expiresAt) {
+      this.result = result;
+      this.weight = weight;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
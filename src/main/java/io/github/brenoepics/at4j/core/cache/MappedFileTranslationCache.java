@@ -0,0 +1,663 @@
+package io.github.brenoepics.at4j.core.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.brenoepics.at4j.data.DetectedLanguage;
+import io.github.brenoepics.at4j.data.Translation;
+import io.github.brenoepics.at4j.data.TranslationResult;
+import io.github.brenoepics.at4j.util.logging.LoggerUtil;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+
+/**
+ * A {@link TranslationCache} which persists the results in a file, so they survive restarts.
+ *
+ * <p>The file is an append-only log of records. Every record holds the key and the result of one
+ * translation, encoded as JSON. An index of all keys is kept in memory, while the results are read
+ * from a memory-mapped view of the file when they are requested. Overwritten entries stay in the
+ * log until it is compacted, which happens automatically once the file exceeds its maximum size.
+ * If the live entries alone still take up more than three quarters of the maximum size, the oldest
+ * entries are dropped during compaction.
+ *
+ * <p>Compaction and {@link #clear()} never modify a log which may still be mapped. Instead, they
+ * write a new generation of the log next to the file, e.g. {@code translations.log.1}, switch to it
+ * and delete the previous one. When the cache is opened, it continues with the latest generation.
+ * On Windows, a file can't be deleted while it is mapped, and a mapping is only released once it
+ * is garbage collected, so the previous generation may stay on disk until the cache is opened
+ * again.
+ *
+ * <p>A record which was only partially written, e.g. because the process crashed, is discarded the
+ * next time the file is opened. Records are not forced to the storage device on every write, call
+ * {@link #close()} to do so. The cache must be closed by its owner, it is not closed when the
+ * {@link io.github.brenoepics.at4j.AzureApi} is disconnected.
+ */
+public class MappedFileTranslationCache implements TranslationCache, Closeable {
+
+  /** The logger of this class. */
+  private static final Logger logger = LoggerUtil.getLogger(MappedFileTranslationCache.class);
+
+  // The first bytes of every cache file, "AT4J"
+  private static final int MAGIC = 0x4154344A;
+
+  // The version of the file format
+  private static final int VERSION = 1;
+
+  // The size of the file header, which consists of the magic and the version
+  private static final int HEADER_SIZE = 8;
+
+  // The size of the record header, which consists of the length of the key and the value
+  private static final int RECORD_HEADER_SIZE = 8;
+
+  // The object mapper used to encode the keys and results
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  // The location of the first generation of the log
+  private final Path file;
+
+  // The maximum size of the log in bytes
+  private final long maximumSize;
+
+  // The position of the live record of every key, in the order the records were written
+  private final LinkedHashMap<TranslationCacheKey, Record> index = new LinkedHashMap<>();
+
+  // The generation of the current log, 0 for the file itself
+  private long generation;
+
+  // The channel of the current log
+  private FileChannel channel;
+
+  // A read-only view of the start of the log, or null if nothing was mapped yet
+  private MappedByteBuffer mappedLog;
+
+  // The size of the log in bytes
+  private long size;
+
+  // The size of all live records in bytes
+  private long liveSize;
+
+  /**
+   * Opens the cache stored in the given file, or creates a new one if the file does not exist.
+   *
+   * @param file The file of the cache.
+   * @param maximumSize The maximum size of the file in bytes.
+   * @throws IOException If the file could not be opened or is not a cache file.
+   * @throws IllegalArgumentException If the maximum size is too small to hold any entry.
+   */
+  public MappedFileTranslationCache(Path file, long maximumSize) throws IOException {
+    if (maximumSize <= HEADER_SIZE + RECORD_HEADER_SIZE) {
+      throw new IllegalArgumentException("The maximum size must be greater than 16 bytes");
+    }
+    this.file = file;
+    this.maximumSize = maximumSize;
+    this.generation = findLatestGeneration();
+    this.channel = open(logFile(generation));
+    load();
+    deletePreviousGenerations();
+  }
+
+  @Override
+  public synchronized Optional<TranslationResult> get(TranslationCacheKey key) {
+    Record translation = index.get(key);
+    if (translation == null || channel == null) {
+      return Optional.empty();
+    }
+
+    try {
+      long position = translation.offset + RECORD_HEADER_SIZE + translation.keyLength;
+      byte[] value = read(position, translation.valueLength);
+      return Optional.of(decodeResult(key.getText(), mapper.readTree(value)));
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failed to read cached translation of {} from {}", key, file, e);
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public synchronized void put(TranslationCacheKey key, TranslationResult result) {
+    if (channel == null) {
+      return;
+    }
+
+    try {
+      byte[] keyBytes = mapper.writeValueAsBytes(encodeKey(key));
+      byte[] valueBytes = mapper.writeValueAsBytes(encodeResult(result));
+      int length = RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length;
+      if (HEADER_SIZE + (long) length > maximumSize) {
+        return;
+      }
+
+      ByteBuffer buffer = ByteBuffer.allocate(length);
+      buffer.putInt(keyBytes.length).putInt(valueBytes.length).put(keyBytes).put(valueBytes);
+      buffer.flip();
+      write(buffer, size);
+
+      remove(key);
+      index.put(key, new Record(size, keyBytes.length, valueBytes.length));
+      size += length;
+      liveSize += length;
+
+      if (size > maximumSize) {
+        compact();
+      }
+    } catch (IOException e) {
+      logger.warn("Failed to write cached translation of {} to {}", key, file, e);
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    if (channel == null) {
+      return;
+    }
+
+    try {
+      Path cleared = file.resolveSibling(file.getFileName() + ".clear");
+      try (FileChannel target = createTemporaryLog(cleared)) {
+        target.force(true);
+      }
+      replaceLog(cleared);
+      index.clear();
+      size = HEADER_SIZE;
+      liveSize = 0;
+    } catch (IOException e) {
+      logger.warn("Failed to clear translation cache {}", file, e);
+    }
+  }
+
+  /**
+   * Rewrites the log so it only contains live records. If the live records take up more than three
+   * quarters of the maximum size, the oldest ones are dropped.
+   *
+   * @throws IOException If the log could not be rewritten.
+   */
+  public synchronized void compact() throws IOException {
+    if (channel == null) {
+      throw new IOException("The translation cache is closed");
+    }
+
+    Iterator<Record> oldest = index.values().iterator();
+    while (HEADER_SIZE + liveSize > maximumSize / 4 * 3 && oldest.hasNext()) {
+      liveSize -= oldest.next().length();
+      oldest.remove();
+    }
+
+    Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+    Map<TranslationCacheKey, Record> moved = new LinkedHashMap<>();
+    long position = HEADER_SIZE;
+    try (FileChannel target = createTemporaryLog(compacted)) {
+      for (Map.Entry<TranslationCacheKey, Record> entry : index.entrySet()) {
+        Record current = entry.getValue();
+        ByteBuffer record = ByteBuffer.wrap(read(current.offset, current.length()));
+        while (record.hasRemaining()) {
+          target.write(record);
+        }
+        moved.put(entry.getKey(), new Record(position, current.keyLength, current.valueLength));
+        position += current.length();
+      }
+      target.force(true);
+    }
+
+    // The old log stays valid until the compacted one replaced it
+    replaceLog(compacted);
+    index.clear();
+    index.putAll(moved);
+    size = position;
+  }
+
+  /**
+   * Gets the amount of cached entries.
+   *
+   * @return The amount of cached entries.
+   */
+  public synchronized int size() {
+    return index.size();
+  }
+
+  /**
+   * Gets the current size of the log, including overwritten records which were not compacted yet.
+   *
+   * @return The size of the log in bytes.
+   */
+  public synchronized long getFileSize() {
+    return size;
+  }
+
+  /**
+   * Forces all records to the storage device and closes the file. Afterward, the cache behaves as
+   * if it was empty.
+   *
+   * @throws IOException If the file could not be closed.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (channel == null) {
+      return;
+    }
+
+    try {
+      channel.force(true);
+    } finally {
+      mappedLog = null;
+      index.clear();
+      channel.close();
+      channel = null;
+    }
+  }
+
+  /**
+   * Reads the log and builds the index. A partially written record at the end of the log is cut
+   * off.
+   *
+   * @throws IOException If the log could not be read or is not a cache file.
+   */
+  private void load() throws IOException {
+    long fileSize = channel.size();
+    if (fileSize == 0) {
+      write(header(), 0);
+      size = HEADER_SIZE;
+      return;
+    }
+
+    if (fileSize < HEADER_SIZE
+        || ByteBuffer.wrap(readFromChannel(0, HEADER_SIZE)).getInt() != MAGIC
+        || ByteBuffer.wrap(readFromChannel(4, 4)).getInt() != VERSION) {
+      channel.close();
+      throw new IOException(logFile(generation) + " is not a translation cache file");
+    }
+
+    // The log is read through the channel, so it is not mapped yet when it is truncated
+    long position = HEADER_SIZE;
+    while (position + RECORD_HEADER_SIZE <= fileSize) {
+      ByteBuffer recordHeader = ByteBuffer.wrap(readFromChannel(position, RECORD_HEADER_SIZE));
+      int keyLength = recordHeader.getInt();
+      int valueLength = recordHeader.getInt();
+      if (keyLength <= 0
+          || valueLength <= 0
+          || position + RECORD_HEADER_SIZE + keyLength + valueLength > fileSize) {
+        break;
+      }
+      Record record = new Record(position, keyLength, valueLength);
+
+      TranslationCacheKey key;
+      try {
+        key =
+            decodeKey(
+                mapper.readTree(readFromChannel(position + RECORD_HEADER_SIZE, keyLength)));
+      } catch (IOException | RuntimeException e) {
+        break;
+      }
+      remove(key);
+      index.put(key, record);
+      liveSize += record.length();
+      position += record.length();
+    }
+
+    if (position < fileSize) {
+      logger.warn(
+          "Discarding {} bytes of incomplete records of {}",
+          fileSize - position,
+          logFile(generation));
+      channel.truncate(position);
+    }
+    size = position;
+  }
+
+  /**
+   * Removes the key from the index, if present.
+   *
+   * @param key The key to remove.
+   */
+  private void remove(TranslationCacheKey key) {
+    Record removed = index.remove(key);
+    if (removed != null) {
+      liveSize -= removed.length();
+    }
+  }
+
+  /**
+   * Reads bytes of the log, from the mapped view if it reaches them, otherwise from the channel.
+   *
+   * @param position The position of the first byte.
+   * @param length The amount of bytes.
+   * @return The read bytes.
+   * @throws IOException If the log could not be read.
+   */
+  private byte[] read(long position, int length) throws IOException {
+    MappedByteBuffer view = mappedLog();
+    if (position + length > view.capacity()) {
+      return readFromChannel(position, length);
+    }
+
+    ByteBuffer record = view.duplicate();
+    record.position((int) position);
+    byte[] bytes = new byte[length];
+    record.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Reads bytes of the log from the channel.
+   *
+   * @param position The position of the first byte.
+   * @param length The amount of bytes.
+   * @return The read bytes.
+   * @throws IOException If the log could not be read or ends before the last byte.
+   */
+  private byte[] readFromChannel(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0) {
+        throw new IOException("Unexpected end of " + logFile(generation));
+      }
+    }
+    return buffer.array();
+  }
+
+  /**
+   * Writes the buffer to the log.
+   *
+   * @param buffer The buffer to write.
+   * @param position The position in the log.
+   * @throws IOException If the buffer could not be written.
+   */
+  private void write(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  /**
+   * Gets a read-only view of the start of the log. The log is only mapped again once it grew to
+   * twice the size of the current view, so the amount of mappings grows logarithmically with the
+   * size of the log. Records behind the view are read from the channel.
+   *
+   * @return The view of the log.
+   * @throws IOException If the log could not be mapped.
+   */
+  private MappedByteBuffer mappedLog() throws IOException {
+    if (mappedLog == null || size >= 2L * mappedLog.capacity()) {
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("The translation cache " + logFile(generation) + " exceeds 2 GiB");
+      }
+      mappedLog = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+    return mappedLog;
+  }
+
+  /**
+   * Replaces the current log with the given one, which becomes the next generation. The current
+   * log may still be mapped, so it is neither truncated nor overwritten, but deleted afterward.
+   *
+   * @param replacement The complete new log.
+   * @throws IOException If the new log could not be opened.
+   */
+  private void replaceLog(Path replacement) throws IOException {
+    Path previous = logFile(generation);
+    Path next = logFile(generation + 1);
+    Files.move(replacement, next, StandardCopyOption.ATOMIC_MOVE);
+    FileChannel nextChannel = open(next);
+
+    mappedLog = null;
+    channel.close();
+    channel = nextChannel;
+    generation++;
+    delete(previous);
+  }
+
+  /**
+   * Gets the latest generation of the log which exists next to the file.
+   *
+   * @return The latest generation, or 0 if the log was never compacted.
+   * @throws IOException If the directory of the file could not be read.
+   */
+  private long findLatestGeneration() throws IOException {
+    long latest = 0;
+    Path directory = file.toAbsolutePath().getParent();
+    if (directory == null || !Files.isDirectory(directory)) {
+      return latest;
+    }
+    try (DirectoryStream<Path> siblings = Files.newDirectoryStream(directory)) {
+      for (Path sibling : siblings) {
+        latest = Math.max(latest, generationOf(sibling));
+      }
+    }
+    return latest;
+  }
+
+  /** Deletes the generations before the current one, e.g. if they were still mapped before. */
+  private void deletePreviousGenerations() {
+    if (generation == 0) {
+      return;
+    }
+    Path directory = file.toAbsolutePath().getParent();
+    try (DirectoryStream<Path> siblings =
+        Files.newDirectoryStream(
+            directory,
+            sibling -> generationOf(sibling) >= 0 && generationOf(sibling) < generation)) {
+      for (Path sibling : siblings) {
+        delete(sibling);
+      }
+    } catch (IOException e) {
+      logger.debug("Failed to delete previous generations of translation cache {}", file, e);
+    }
+  }
+
+  /**
+   * Gets the generation of the log stored in the given file.
+   *
+   * @param path The file.
+   * @return The generation, or -1 if the file is not a generation of this log.
+   */
+  private long generationOf(Path path) {
+    String name = path.getFileName().toString();
+    String prefix = file.getFileName() + ".";
+    if (name.equals(file.getFileName().toString())) {
+      return 0;
+    }
+    if (!name.startsWith(prefix)
+        || name.length() == prefix.length()
+        || !name.substring(prefix.length()).chars().allMatch(Character::isDigit)) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(name.substring(prefix.length()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Gets the file which stores the given generation of the log.
+   *
+   * @param generation The generation.
+   * @return The file.
+   */
+  private Path logFile(long generation) {
+    return generation == 0 ? file : file.resolveSibling(file.getFileName() + "." + generation);
+  }
+
+  /**
+   * Deletes a previous log. If it is still mapped on a platform which does not allow that, it is
+   * deleted the next time the cache is opened.
+   *
+   * @param previous The previous log.
+   */
+  private void delete(Path previous) {
+    try {
+      Files.deleteIfExists(previous);
+    } catch (IOException e) {
+      logger.debug("Failed to delete previous translation cache {}", previous, e);
+    }
+  }
+
+  /**
+   * Creates a new log which only contains the header. It replaces the current log once it is
+   * complete.
+   *
+   * @param path The file of the new log.
+   * @return The channel of the new log.
+   * @throws IOException If the log could not be created.
+   */
+  private static FileChannel createTemporaryLog(Path path) throws IOException {
+    FileChannel target =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+    try {
+      target.write(header());
+    } catch (IOException e) {
+      target.close();
+      throw e;
+    }
+    return target;
+  }
+
+  /**
+   * Opens the channel of the log.
+   *
+   * @param file The file of the log.
+   * @return The channel.
+   * @throws IOException If the file could not be opened.
+   */
+  private static FileChannel open(Path file) throws IOException {
+    return FileChannel.open(
+        file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+
+  /**
+   * Creates the header of a cache file.
+   *
+   * @return The header.
+   */
+  private static ByteBuffer header() {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(VERSION);
+    header.flip();
+    return header;
+  }
+
+  /**
+   * Encodes a key to JSON.
+   *
+   * @param key The key.
+   * @return The JSON node.
+   */
+  private static JsonNode encodeKey(TranslationCacheKey key) {
+    ObjectNode node = mapper.createObjectNode();
+    node.put("text", key.getText());
+    ObjectNode options = node.putObject("options");
+    key.getOptions().forEach(options::put);
+    ArrayNode targetLanguages = node.putArray("to");
+    key.getTargetLanguages().forEach(targetLanguages::add);
+    return node;
+  }
+
+  /**
+   * Decodes a key from JSON.
+   *
+   * @param node The JSON node.
+   * @return The key.
+   */
+  private static TranslationCacheKey decodeKey(JsonNode node) {
+    Map<String, String> options = new TreeMap<>();
+    node.get("options")
+        .fields()
+        .forEachRemaining(option -> options.put(option.getKey(), option.getValue().asText()));
+    List<String> targetLanguages = new ArrayList<>();
+    node.get("to").forEach(language -> targetLanguages.add(language.asText()));
+    String text = node.get("text").isNull() ? null : node.get("text").asText();
+    return new TranslationCacheKey(text, options, targetLanguages);
+  }
+
+  /**
+   * Encodes a result to JSON, in the same format as Azure returns it.
+   *
+   * @param result The result.
+   * @return The JSON node.
+   */
+  private static JsonNode encodeResult(TranslationResult result) {
+    ObjectNode node = mapper.createObjectNode();
+    DetectedLanguage detectedLanguage = result.getDetectedLanguage();
+    if (detectedLanguage != null) {
+      node.putObject("detectedLanguage")
+          .put("language", detectedLanguage.getLanguageCode())
+          .put("score", detectedLanguage.getScore())
+          .put("isTranslationSupported", detectedLanguage.isTranslationSupported())
+          .put("isTransliterationSupported", detectedLanguage.isTransliterationSupported());
+    }
+
+    ArrayNode translations = node.putArray("translations");
+    if (result.getTranslations() != null) {
+      for (Translation translation : result.getTranslations()) {
+        translations
+            .addObject()
+            .put("to", translation.getLanguageCode())
+            .put("text", translation.getText());
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Decodes a result from JSON.
+   *
+   * @param baseText The translated text.
+   * @param node The JSON node.
+   * @return The result.
+   */
+  private static TranslationResult decodeResult(String baseText, JsonNode node) {
+    List<Translation> translations = new ArrayList<>();
+    node.get("translations").forEach(t -> translations.add(Translation.ofJSON((ObjectNode) t)));
+
+    if (node.has("detectedLanguage")) {
+      return new TranslationResult(
+          baseText,
+          DetectedLanguage.ofJSON(baseText, (ObjectNode) node.get("detectedLanguage")),
+          translations);
+    }
+    return new TranslationResult(baseText, translations);
+  }
+
+  @Override
+  public String toString() {
+    return "MappedFileTranslationCache{" + "file=" + file + ", entries=" + size() + '}';
+  }
+
+  /** The position of a record in the log. */
+  private static final class Record {
+    private final long offset;
+    private final int keyLength;
+    private final int valueLength;
+
+    private Record(long offset, int keyLength, int valueLength) {
+      this.offset = offset;
+      this.keyLength = keyLength;
+      this.valueLength = valueLength;
+    }
+
+    private int length() {
+      return RECORD_HEADER_SIZE + keyLength + valueLength;
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package io.github.brenoepics.at4j.core.cache;
+
+import io.github.brenoepics.at4j.data.TranslationResult;
+import java.util.Optional;
+
+/**
+ * A cache for translation results. Texts whose result is cached are not sent to Azure again, so
+ * they neither count against the rate-limits nor the character quota.
+ *
+ * <p>Implementations must be thread-safe.
+ *
+ * @see io.github.brenoepics.at4j.AzureApiBuilder#translationCache(TranslationCache)
+ */
+public interface TranslationCache {
+
+  /**
+   * Gets the cached result for the given key.
+   *
+   * @param key The key of the translation.
+   * @return The cached result or an empty optional if there is none.
+   */
+  Optional<TranslationResult> get(TranslationCacheKey key);
+
+  /**
+   * Caches the result for the given key.
+   *
+   * @param key The key of the translation.
+   * @param result The result to cache.
+   */
+  void put(TranslationCacheKey key, TranslationResult result);
+
+  /** Removes all cached results. */
+  void clear();
+}
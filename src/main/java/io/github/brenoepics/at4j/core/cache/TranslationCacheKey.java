@@ -0,0 +1,115 @@
+package io.github.brenoepics.at4j.core.cache;
+
+import io.github.brenoepics.at4j.data.request.TranslateParams;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * The key of a cached translation. It consists of the text and every option which changes the
+ * result: the source language, the target languages, the text type, the profanity handling and the
+ * alignment and sentence length flags. This class is immutable.
+ */
+public final class TranslationCacheKey {
+
+  // The translated text
+  private final String text;
+
+  // The query parameters of the translation, sorted by name
+  private final Map<String, String> options;
+
+  // The target languages of the translation
+  private final List<String> targetLanguages;
+
+  /**
+   * Creates a new key.
+   *
+   * @param text The translated text.
+   * @param options The query parameters of the translation.
+   * @param targetLanguages The target languages of the translation.
+   */
+  public TranslationCacheKey(
+      String text, Map<String, String> options, List<String> targetLanguages) {
+    this.text = text;
+    this.options = Collections.unmodifiableMap(new TreeMap<>(options));
+    this.targetLanguages =
+        targetLanguages == null
+            ? Collections.emptyList()
+            : Collections.unmodifiableList(new ArrayList<>(targetLanguages));
+  }
+
+  /**
+   * Creates the key for one text of the given params.
+   *
+   * @param params The params of the translation.
+   * @param text The translated text.
+   * @return The key.
+   */
+  public static TranslationCacheKey of(TranslateParams params, String text) {
+    List<String> targetLanguages =
+        params.getTargetLanguages() == null ? null : new ArrayList<>(params.getTargetLanguages());
+    return new TranslationCacheKey(text, params.getQueryParameters(), targetLanguages);
+  }
+
+  /**
+   * Returns the translated text.
+   *
+   * @return The translated text.
+   */
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * Returns the query parameters of the translation, sorted by name.
+   *
+   * @return The query parameters of the translation.
+   */
+  public Map<String, String> getOptions() {
+    return options;
+  }
+
+  /**
+   * Returns the target languages of the translation.
+   *
+   * @return The target languages of the translation.
+   */
+  public List<String> getTargetLanguages() {
+    return targetLanguages;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof TranslationCacheKey)) {
+      return false;
+    }
+    TranslationCacheKey other = (TranslationCacheKey) obj;
+    return Objects.equals(text, other.text)
+        && options.equals(other.options)
+        && targetLanguages.equals(other.targetLanguages);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(text, options, targetLanguages);
+  }
+
+  @Override
+  public String toString() {
+    return "TranslationCacheKey{"
+        + "text='"
+        + text
+        + '\''
+        + ", options="
+        + options
+        + ", targetLanguages="
+        + targetLanguages
+        + '}';
+  }
+}
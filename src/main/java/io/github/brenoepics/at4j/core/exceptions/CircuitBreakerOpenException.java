@@ -0,0 +1,18 @@
+package io.github.brenoepics.at4j.core.exceptions;
+
+import io.github.brenoepics.at4j.util.rest.RestRequestInfo;
+
+/** When a request is not sent because the circuit breaker of its endpoint is open. */
+public class CircuitBreakerOpenException extends AzureException {
+
+  /**
+   * Creates a new instance of this class.
+   *
+   * @param origin The origin of the exception.
+   * @param message The message of the exception.
+   * @param request The information about the request.
+   */
+  public CircuitBreakerOpenException(Exception origin, String message, RestRequestInfo request) {
+    super(origin, message, request, null);
+  }
+}
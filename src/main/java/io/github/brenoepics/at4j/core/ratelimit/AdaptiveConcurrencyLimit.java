@@ -0,0 +1,120 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+/**
+ * A concurrency limit which adapts to the feedback of Azure with additive increase and
+ * multiplicative decrease (AIMD). While the limit is used and the latency is stable, it grows by
+ * one request. If Azure answers with a 429 response, it is halved, and if the latency grows beyond
+ * {@link #LATENCY_TOLERANCE} times the usual latency, it shrinks by {@link #LATENCY_BACKOFF}.
+ *
+ * @see RateLimitManager#setAdaptiveConcurrency(io.github.brenoepics.at4j.util.rest.RestEndpoint,
+ *     AdaptiveConcurrencyLimit)
+ */
+public class AdaptiveConcurrencyLimit {
+
+  /** How much longer than usual a request may take before the limit shrinks. */
+  public static final double LATENCY_TOLERANCE = 2.0;
+
+  /** The factor the limit shrinks by if the latency grows. */
+  public static final double LATENCY_BACKOFF = 0.9;
+
+  /** The factor the limit shrinks by on a 429 response. */
+  public static final double RATE_LIMIT_BACKOFF = 0.5;
+
+  // The weight of a new sample in the usual latency
+  private static final double LATENCY_SMOOTHING = 0.05;
+
+  private final int minLimit;
+  private final int maxLimit;
+
+  // The current limit, fractional so repeated backoffs don't round to the same value
+  private double limit;
+
+  // The exponentially smoothed latency of successful requests, in nanoseconds, or 0 if unknown
+  private double usualLatency = 0;
+
+  /**
+   * Creates a new limit which starts at the minimum.
+   *
+   * @param minLimit The minimum limit, at least 1.
+   * @param maxLimit The maximum limit, at least the minimum.
+   * @throws IllegalArgumentException If the limits are invalid.
+   */
+  public AdaptiveConcurrencyLimit(int minLimit, int maxLimit) {
+    if (minLimit < 1 || maxLimit < minLimit) {
+      throw new IllegalArgumentException(
+          "The minimum limit must be at least 1 and not exceed the maximum limit");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = minLimit;
+  }
+
+  /**
+   * Updates the limit with the outcome of a request.
+   *
+   * @param latencyNanos How long the request took, in nanoseconds.
+   * @param inFlight The amount of requests which were in-flight, including this one.
+   * @param rateLimited Whether Azure answered with a 429 response.
+   * @return The new limit.
+   */
+  public synchronized int onSample(long latencyNanos, int inFlight, boolean rateLimited) {
+    if (rateLimited) {
+      limit = Math.max(minLimit, limit * RATE_LIMIT_BACKOFF);
+      return getLimit();
+    }
+
+    if (usualLatency == 0) {
+      usualLatency = latencyNanos;
+    }
+
+    if (latencyNanos > usualLatency * LATENCY_TOLERANCE) {
+      limit = Math.max(minLimit, limit * LATENCY_BACKOFF);
+    } else {
+      usualLatency += (latencyNanos - usualLatency) * LATENCY_SMOOTHING;
+      // Only grow if the limit is actually used, otherwise it grows without any feedback
+      if (inFlight * 2 >= limit) {
+        limit = Math.min(maxLimit, limit + 1);
+      }
+    }
+    return getLimit();
+  }
+
+  /**
+   * Gets the current limit.
+   *
+   * @return The maximum amount of concurrent requests.
+   */
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * Gets the minimum limit.
+   *
+   * @return The minimum limit.
+   */
+  public int getMinLimit() {
+    return minLimit;
+  }
+
+  /**
+   * Gets the maximum limit.
+   *
+   * @return The maximum limit.
+   */
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+
+  @Override
+  public String toString() {
+    return "AdaptiveConcurrencyLimit{"
+        + "limit="
+        + getLimit()
+        + ", minLimit="
+        + minLimit
+        + ", maxLimit="
+        + maxLimit
+        + '}';
+  }
+}
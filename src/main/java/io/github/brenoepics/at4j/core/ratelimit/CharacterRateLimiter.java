@@ -0,0 +1,119 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket which limits the amount of translated characters per period, like the character
+ * limits of the Azure pricing tiers. The bucket holds up to the characters of one period and is
+ * refilled continuously, so requests are spread evenly instead of being sent in bursts until Azure
+ * answers with 429 responses.
+ *
+ * <p>A request is never rejected. If there are not enough characters left, the limiter reserves
+ * them anyway and tells the caller how long to wait, so requests which are larger than the bucket
+ * are delayed, too. Characters of a request which is never sent can be given back with {@link
+ * #refund(long)}.
+ */
+public class CharacterRateLimiter {
+
+  // The maximum amount of characters in the bucket
+  private final long capacity;
+
+  // The amount of characters which are refilled per nanosecond
+  private final double charactersPerNano;
+
+  // The clock, in nanoseconds
+  private final LongSupplier nanoClock;
+
+  // The characters in the bucket, negative if future characters are reserved already
+  private double available;
+
+  // The time of the last refill, in nanoseconds
+  private long lastRefill;
+
+  /**
+   * Creates a new limiter which starts with a full bucket.
+   *
+   * @param characters The maximum amount of characters per period.
+   * @param period The period.
+   * @throws IllegalArgumentException If the characters or the period are not positive.
+   */
+  public CharacterRateLimiter(long characters, Duration period) {
+    this(characters, period, System::nanoTime);
+  }
+
+  /**
+   * Creates a new limiter with the given clock.
+   *
+   * @param characters The maximum amount of characters per period.
+   * @param period The period.
+   * @param nanoClock The clock, in nanoseconds.
+   */
+  CharacterRateLimiter(long characters, Duration period, LongSupplier nanoClock) {
+    if (characters <= 0) {
+      throw new IllegalArgumentException("The amount of characters must be positive");
+    }
+    if (period.isNegative() || period.isZero()) {
+      throw new IllegalArgumentException("The period must be positive");
+    }
+    this.capacity = characters;
+    this.charactersPerNano = (double) characters / period.toNanos();
+    this.nanoClock = nanoClock;
+    this.available = characters;
+    this.lastRefill = nanoClock.getAsLong();
+  }
+
+  /**
+   * Reserves the given amount of characters.
+   *
+   * @param characters The amount of characters.
+   * @return How long to wait until the characters are available, in nanoseconds, or 0 if they are
+   *     available right away.
+   */
+  public synchronized long reserve(long characters) {
+    refill();
+    available -= characters;
+    if (available >= 0) {
+      return 0;
+    }
+    return (long) Math.ceil(-available / charactersPerNano);
+  }
+
+  /**
+   * Gives back characters which were reserved for a request that was never sent, e.g. because it
+   * was cancelled while it was queued. The bucket never holds more than its capacity afterward.
+   *
+   * @param characters The amount of characters.
+   */
+  public synchronized void refund(long characters) {
+    refill();
+    available = Math.min(capacity, available + characters);
+  }
+
+  /**
+   * Gets the amount of characters which may be reserved without waiting.
+   *
+   * @return The available characters, or 0 if future characters are reserved already.
+   */
+  public synchronized long getAvailableCharacters() {
+    refill();
+    return Math.max(0, (long) available);
+  }
+
+  /** Refills the bucket according to the time which passed since the last refill. */
+  private void refill() {
+    long now = nanoClock.getAsLong();
+    available = Math.min(capacity, available + (now - lastRefill) * charactersPerNano);
+    lastRefill = now;
+  }
+
+  @Override
+  public String toString() {
+    return "CharacterRateLimiter{"
+        + "capacity="
+        + capacity
+        + ", available="
+        + getAvailableCharacters()
+        + '}';
+  }
+}
@@ -0,0 +1,152 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * A circuit breaker for the requests to one endpoint. Once Azure failed a given amount of times in
+ * a row, the breaker opens and requests fail immediately instead of waiting for their own timeout.
+ * After a while, the breaker lets a single probe request through. If it succeeds, the breaker
+ * closes again, otherwise it stays open for another while.
+ *
+ * <p>Only failures of Azure count, which are connection errors, timeouts and 5xx responses.
+ * Rejected requests, e.g. with a 400 or 429 response, show that Azure is reachable.
+ *
+ * @see RateLimitManager#setCircuitBreaker(io.github.brenoepics.at4j.util.rest.RestEndpoint,
+ *     CircuitBreaker)
+ */
+public class CircuitBreaker {
+
+  // The amount of failures in a row which open the breaker
+  private final int failureThreshold;
+
+  // How long the breaker stays open before it lets a probe through, in nanoseconds
+  private final long openDurationNanos;
+
+  // The clock, in nanoseconds
+  private final LongSupplier nanoClock;
+
+  // The current state, HALF_OPEN only while a probe is in flight
+  private CircuitBreakerState state = CircuitBreakerState.CLOSED;
+
+  // The amount of failures in a row
+  private int failures = 0;
+
+  // The time the breaker opened, in nanoseconds
+  private long openedAt;
+
+  /**
+   * Creates a new closed breaker.
+   *
+   * @param failureThreshold The amount of failures in a row which open the breaker, at least 1.
+   * @param openDuration How long the breaker stays open before it lets a probe through.
+   * @throws IllegalArgumentException If the threshold is less than 1 or the duration is not
+   *     positive.
+   */
+  public CircuitBreaker(int failureThreshold, Duration openDuration) {
+    this(failureThreshold, openDuration, System::nanoTime);
+  }
+
+  /**
+   * Creates a new closed breaker with the given clock.
+   *
+   * @param failureThreshold The amount of failures in a row which open the breaker.
+   * @param openDuration How long the breaker stays open before it lets a probe through.
+   * @param nanoClock The clock, in nanoseconds.
+   */
+  CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+    if (failureThreshold < 1) {
+      throw new IllegalArgumentException("The failure threshold must be at least 1");
+    }
+    if (openDuration.isNegative() || openDuration.isZero()) {
+      throw new IllegalArgumentException("The open duration must be positive");
+    }
+    this.failureThreshold = failureThreshold;
+    this.openDurationNanos = openDuration.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Checks if a request may be sent. If the breaker is open and its open duration passed, the
+   * request becomes the probe and the breaker is half-open until its outcome is recorded.
+   *
+   * @return Whether the request may be sent.
+   */
+  public synchronized boolean tryAcquire() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (nanoClock.getAsLong() - openedAt < openDurationNanos) {
+          return false;
+        }
+        state = CircuitBreakerState.HALF_OPEN;
+        return true;
+      default:
+        // The probe is still in flight
+        return false;
+    }
+  }
+
+  /** Records a request which reached Azure. Closes the breaker if the request was the probe. */
+  public synchronized void onSuccess() {
+    failures = 0;
+    state = CircuitBreakerState.CLOSED;
+  }
+
+  /** Records a request which failed because of Azure. Opens the breaker if it failed too often. */
+  public synchronized void onFailure() {
+    failures++;
+    if (state == CircuitBreakerState.HALF_OPEN || failures >= failureThreshold) {
+      state = CircuitBreakerState.OPEN;
+      openedAt = nanoClock.getAsLong();
+    }
+  }
+
+  /**
+   * Records a request which was cancelled before its outcome was known. If the request was the
+   * probe, the next request becomes the probe instead.
+   */
+  public synchronized void onCancelled() {
+    if (state == CircuitBreakerState.HALF_OPEN) {
+      state = CircuitBreakerState.OPEN;
+    }
+  }
+
+  /**
+   * Gets the state of the breaker, e.g. for health checks. An open breaker whose open duration
+   * passed is reported as half-open, because the next request is sent as probe.
+   *
+   * @return The state.
+   */
+  public synchronized CircuitBreakerState getState() {
+    if (state == CircuitBreakerState.OPEN
+        && nanoClock.getAsLong() - openedAt >= openDurationNanos) {
+      return CircuitBreakerState.HALF_OPEN;
+    }
+    return state;
+  }
+
+  /**
+   * Gets the amount of failures in a row which open the breaker.
+   *
+   * @return The failure threshold.
+   */
+  public int getFailureThreshold() {
+    return failureThreshold;
+  }
+
+  /**
+   * Gets how long the breaker stays open before it lets a probe through.
+   *
+   * @return The open duration.
+   */
+  public Duration getOpenDuration() {
+    return Duration.ofNanos(openDurationNanos);
+  }
+
+  @Override
+  public String toString() {
+    return "CircuitBreaker{" + "state=" + getState() + ", failures=" + failures + '}';
+  }
+}
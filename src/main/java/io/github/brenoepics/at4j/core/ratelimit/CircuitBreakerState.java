@@ -0,0 +1,16 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+/**
+ * This enum describes the state of a {@link CircuitBreaker}.
+ *
+ * <ul>
+ *   <li>CLOSED: Requests are sent.
+ *   <li>OPEN: Requests fail immediately, because Azure failed too often.
+ *   <li>HALF_OPEN: A single probe request is sent to check if Azure recovered.
+ * </ul>
+ */
+public enum CircuitBreakerState {
+  CLOSED, // Requests are sent.
+  OPEN, // Requests fail immediately.
+  HALF_OPEN // A single probe request is sent.
+}
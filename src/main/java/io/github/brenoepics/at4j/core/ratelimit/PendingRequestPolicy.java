@@ -0,0 +1,18 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+/**
+ * This enum describes what happens to a request which is queued while the maximum amount of
+ * pending requests is reached.
+ *
+ * <ul>
+ *   <li>REJECT: The request fails immediately with a {@link
+ *       java.util.concurrent.RejectedExecutionException}.
+ *   <li>WAIT: The request waits without occupying a thread until another request finished.
+ * </ul>
+ *
+ * @see RateLimitManager#setMaxPendingRequests(int, PendingRequestPolicy)
+ */
+public enum PendingRequestPolicy {
+  REJECT, // The request fails immediately.
+  WAIT // The request waits until another request finished.
+}
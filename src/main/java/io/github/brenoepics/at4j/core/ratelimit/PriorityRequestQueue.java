@@ -0,0 +1,148 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+import io.github.brenoepics.at4j.util.rest.RestRequest;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * A queue of requests per {@link RequestPriority}. The priorities share the polls by their weight,
+ * so requests of a low priority are not starved by a steady stream of requests of a higher one.
+ *
+ * <p>Adding, removing and peeking requests never lock. Only polling, which updates the round-robin
+ * credits, is guarded by the queue.
+ */
+class PriorityRequestQueue {
+
+  private final Map<RequestPriority, ConcurrentLinkedDeque<RestRequest>> queues =
+      new EnumMap<>(RequestPriority.class);
+
+  // The credit of each priority for the weighted round-robin, guarded by this queue
+  private final int[] credits = new int[RequestPriority.values().length];
+
+  /** Creates an empty queue. */
+  PriorityRequestQueue() {
+    for (RequestPriority priority : RequestPriority.values()) {
+      queues.put(priority, new ConcurrentLinkedDeque<>());
+    }
+  }
+
+  /**
+   * Adds the given request to the queue of its priority.
+   *
+   * @param request The request to add.
+   */
+  void add(RestRequest request) {
+    queueOf(request).add(request);
+  }
+
+  /**
+   * Adds the given request to the head of the queue of its priority, so it is polled before any
+   * other request of the same priority.
+   *
+   * @param request The request to add.
+   */
+  void addFirst(RestRequest request) {
+    queueOf(request).addFirst(request);
+  }
+
+  /**
+   * Removes the given request from the queue.
+   *
+   * @param request The request to remove.
+   * @return Whether the request was queued.
+   */
+  boolean remove(RestRequest request) {
+    return queueOf(request).remove(request);
+  }
+
+  /**
+   * Polls a request. The priority is picked by a smooth weighted round-robin over the priorities
+   * with queued requests, so every priority gets a share of the polls relative to its weight.
+   *
+   * @return The polled request or {@code null} if the queue is empty.
+   */
+  synchronized RestRequest poll() {
+    RequestPriority[] priorities = RequestPriority.values();
+    while (true) {
+      int totalWeight = 0;
+      int next = -1;
+      for (int i = 0; i < priorities.length; i++) {
+        if (queues.get(priorities[i]).isEmpty()) {
+          // An idle priority neither saves up nor owes polls
+          credits[i] = 0;
+          continue;
+        }
+        credits[i] += priorities[i].getWeight();
+        totalWeight += priorities[i].getWeight();
+        if (next == -1 || credits[i] > credits[next]) {
+          next = i;
+        }
+      }
+      if (next == -1) {
+        return null;
+      }
+
+      credits[next] -= totalWeight;
+      RestRequest request = queues.get(priorities[next]).poll();
+      // The request may have been removed in the meantime, then try the next one
+      if (request != null) {
+        return request;
+      }
+    }
+  }
+
+  /**
+   * Peeks a request of the highest priority with queued requests.
+   *
+   * @return The peeked request or {@code null} if the queue is empty.
+   */
+  RestRequest peek() {
+    for (ConcurrentLinkedDeque<RestRequest> queue : queues.values()) {
+      RestRequest request = queue.peek();
+      if (request != null) {
+        return request;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks if no request is queued.
+   *
+   * @return Whether the queue is empty.
+   */
+  boolean isEmpty() {
+    return peek() == null;
+  }
+
+  /**
+   * Gets the amount of queued requests of the given priority.
+   *
+   * @param priority The priority.
+   * @return The amount of queued requests.
+   */
+  int size(RequestPriority priority) {
+    return queues.get(priority).size();
+  }
+
+  /**
+   * Gets the amount of queued requests of all priorities.
+   *
+   * @return The amount of queued requests.
+   */
+  int size() {
+    return queues.values().stream().mapToInt(ConcurrentLinkedDeque::size).sum();
+  }
+
+  /**
+   * Gets the queue of the priority of the given request.
+   *
+   * @param request The request.
+   * @return The queue.
+   */
+  private ConcurrentLinkedDeque<RestRequest> queueOf(RestRequest request) {
+    return queues.get(Objects.requireNonNullElse(request.getPriority(), RequestPriority.NORMAL));
+  }
+}
@@ -2,32 +2,66 @@ package io.github.brenoepics.at4j.core.ratelimit;
 
 import io.github.brenoepics.at4j.util.rest.RestEndpoint;
 import io.github.brenoepics.at4j.util.rest.RestRequest;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class represents a rate limit bucket for Azure API requests. It manages the rate limit for
- * each endpoint and major URL parameter combination.
+ * each endpoint and major URL parameter combination. Queued requests are kept per {@link
+ * RequestPriority} and the priorities share the slots of the bucket by their weight.
+ *
+ * <p>Queueing a request and checking for a free slot never lock, so callers which send to the same
+ * endpoint don't contend with each other. Only acquiring a slot, which updates the remaining
+ * rate-limit, and updating the rate-limit are guarded by the bucket.
  */
 public class RateLimitBucket<T, T4, T3> {
 
-  private final ConcurrentLinkedQueue<RestRequest> requestQueue = new ConcurrentLinkedQueue<>();
+  private final PriorityRequestQueue requestQueue = new PriorityRequestQueue();
 
   private final RestEndpoint endpoint;
 
-  private volatile long rateLimitResetTimestamp = 0;
-  private volatile int rateLimitRemaining = 1;
+  // The remaining rate-limit and its reset, guarded by this bucket
+  private long rateLimitResetTimestamp = 0;
+  private int rateLimitRemaining = 1;
+
+  private volatile int maxConcurrentRequests;
+  private final AtomicInteger inFlightRequests = new AtomicInteger();
+
+  // Whether a submission is scheduled for the moment the rate-limit resets
+  private final AtomicBoolean submissionScheduled = new AtomicBoolean();
 
   /**
-   * Creates a RateLimitBucket for the given endpoint / parameter combination.
+   * Creates a RateLimitBucket for the given endpoint / parameter combination, which sends one
+   * request at a time.
    *
    * @param endpoint The REST endpoint the rate-limit is tracked for.
    */
   public RateLimitBucket(RestEndpoint endpoint) {
+    this(endpoint, 1);
+  }
+
+  /**
+   * Creates a RateLimitBucket for the given endpoint / parameter combination.
+   *
+   * @param endpoint The REST endpoint the rate-limit is tracked for.
+   * @param maxConcurrentRequests The maximum amount of requests which may be in-flight at once.
+   */
+  public RateLimitBucket(RestEndpoint endpoint, int maxConcurrentRequests) {
     this.endpoint = endpoint;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  /**
+   * Gets the endpoint of this bucket.
+   *
+   * @return The endpoint.
+   */
+  public RestEndpoint getEndpoint() {
+    return endpoint;
   }
 
   /**
-   * Adds the given request to the bucket's queue.
+   * Adds the given request to the bucket's queue of its priority.
    *
    * @param request The request to add.
    */
@@ -35,26 +69,158 @@ public class RateLimitBucket<T, T4, T3> {
     requestQueue.add(request);
   }
 
-  /** Polls a request from the bucket's queue. */
-  public void pollRequestFromQueue() {
-    requestQueue.poll();
+  /**
+   * Adds the given request to the head of the bucket's queue of its priority, so it is sent before
+   * any other queued request of the same priority. Used to retry requests which hit a rate-limit.
+   *
+   * @param request The request to add.
+   */
+  public void addRequestToQueueHead(RestRequest request) {
+    requestQueue.addFirst(request);
+  }
+
+  /**
+   * Polls a request from the bucket's queues. The priority is picked by a smooth weighted
+   * round-robin over the priorities with queued requests, so every priority gets a share of the
+   * polls relative to its weight.
+   *
+   * @return The polled request or {@code null} if all queues are empty.
+   */
+  public RestRequest pollRequestFromQueue() {
+    return requestQueue.poll();
+  }
+
+  /**
+   * Removes the given request from the bucket's queue, e.g. because it was cancelled.
+   *
+   * @param request The request to remove.
+   * @return Whether the request was queued.
+   */
+  public boolean removeRequestFromQueue(RestRequest request) {
+    return requestQueue.remove(request);
+  }
+
+  /**
+   * Polls a request from the bucket's queue if less than {@link #getMaxConcurrentRequests()}
+   * requests are currently in-flight and the rate-limit is not exhausted. If a request is returned,
+   * it occupies a slot until {@link #releaseSlot()} is called and is counted against the remaining
+   * rate-limit.
+   *
+   * @return The polled request or {@code null} if the queue is empty, all slots are occupied or
+   *     the bucket is rate-limited.
+   */
+  public synchronized RestRequest acquireSlot() {
+    while (true) {
+      if (getTimeTillSpaceGetsAvailable() > 0) {
+        return null;
+      }
+
+      int current = inFlightRequests.get();
+      if (current >= maxConcurrentRequests) {
+        return null;
+      }
+      if (!inFlightRequests.compareAndSet(current, current + 1)) {
+        continue;
+      }
+
+      RestRequest request = pollRequestFromQueue();
+      if (request != null) {
+        if (rateLimitRemaining > 0) {
+          rateLimitRemaining--;
+        }
+        return request;
+      }
+
+      // A request queued while the slot was reserved may have seen no free slot, so it is picked
+      // up here instead of waiting for the next completed request
+      releaseSlot();
+      if (peekRequestFromQueue() == null) {
+        return null;
+      }
+    }
+  }
+
+  /** Releases a slot previously occupied by {@link #acquireSlot()}. */
+  public void releaseSlot() {
+    inFlightRequests.getAndUpdate(current -> current > 0 ? current - 1 : 0);
   }
 
   /**
-   * Peeks a request from the bucket's queue.
+   * Checks if another request may be sent right now without exceeding the maximum amount of
+   * concurrent requests.
    *
-   * @return The peeked request.
+   * @return Whether the bucket has a free slot.
+   */
+  public boolean hasFreeSlot() {
+    return inFlightRequests.get() < maxConcurrentRequests;
+  }
+
+  /**
+   * Marks a submission of this bucket as scheduled, unless one is scheduled already.
+   *
+   * @return Whether the caller must schedule the submission.
+   */
+  boolean tryScheduleSubmission() {
+    return submissionScheduled.compareAndSet(false, true);
+  }
+
+  /** Marks the scheduled submission of this bucket as due, so the next one can be scheduled. */
+  void onScheduledSubmission() {
+    submissionScheduled.set(false);
+  }
+
+  /**
+   * Gets the amount of requests of this bucket which are currently in-flight.
+   *
+   * @return The amount of in-flight requests.
+   */
+  public int getInFlightRequests() {
+    return inFlightRequests.get();
+  }
+
+  /**
+   * Gets the maximum amount of requests which may be in-flight at once.
+   *
+   * @return The maximum amount of concurrent requests.
+   */
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  /**
+   * Sets the maximum amount of requests which may be in-flight at once.
+   *
+   * @param maxConcurrentRequests The maximum amount of concurrent requests.
+   */
+  public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  /**
+   * Peeks a request from the bucket's queues, of the highest priority with queued requests.
+   *
+   * @return The peeked request or {@code null} if all queues are empty.
    */
   public RestRequest peekRequestFromQueue() {
     return requestQueue.peek();
   }
 
+  /**
+   * Gets the amount of queued requests of the given priority.
+   *
+   * @param priority The priority.
+   * @return The amount of queued requests.
+   */
+  public int getQueuedRequests(RequestPriority priority) {
+    return requestQueue.size(priority);
+  }
+
   /**
    * Sets the remaining requests till rate-limit.
    *
    * @param rateLimitRemaining The remaining requests till rate-limit.
    */
-  public void setRateLimitRemaining(int rateLimitRemaining) {
+  public synchronized void setRateLimitRemaining(int rateLimitRemaining) {
     this.rateLimitRemaining = rateLimitRemaining;
   }
 
@@ -63,16 +229,46 @@ public class RateLimitBucket<T, T4, T3> {
    *
    * @param rateLimitResetTimestamp The rate-limit reset timestamp.
    */
-  public void setRateLimitResetTimestamp(long rateLimitResetTimestamp) {
+  public synchronized void setRateLimitResetTimestamp(long rateLimitResetTimestamp) {
     this.rateLimitResetTimestamp = rateLimitResetTimestamp;
   }
 
+  /**
+   * Updates the rate-limit with the information of a successful response. Several requests can be
+   * in-flight at once, so the response may belong to a request which was sent before another one
+   * got rate-limited. While such a backoff is pending, the reset is only moved forward.
+   *
+   * @param rateLimitRemaining The remaining requests till rate-limit.
+   * @param rateLimitResetTimestamp The rate-limit reset timestamp.
+   */
+  public synchronized void updateRateLimit(int rateLimitRemaining, long rateLimitResetTimestamp) {
+    if (this.rateLimitRemaining <= 0
+        && this.rateLimitResetTimestamp > System.currentTimeMillis()) {
+      this.rateLimitResetTimestamp =
+          Math.max(this.rateLimitResetTimestamp, rateLimitResetTimestamp);
+      return;
+    }
+    this.rateLimitRemaining = rateLimitRemaining;
+    this.rateLimitResetTimestamp = rateLimitResetTimestamp;
+  }
+
+  /**
+   * Exhausts the rate-limit until the given timestamp, e.g. because of a 429 response. A later
+   * reset of a backoff which is already pending is kept.
+   *
+   * @param rateLimitResetTimestamp The timestamp at which requests may be sent again.
+   */
+  public synchronized void onRateLimited(long rateLimitResetTimestamp) {
+    this.rateLimitRemaining = 0;
+    this.rateLimitResetTimestamp = Math.max(this.rateLimitResetTimestamp, rateLimitResetTimestamp);
+  }
+
   /**
    * Gets the time in seconds how long you have to wait till there's space in the bucket again.
    *
    * @return The time in seconds how long you have to wait till there's space in the bucket again.
    */
-  public int getTimeTillSpaceGetsAvailable() {
+  public synchronized int getTimeTillSpaceGetsAvailable() {
     long globalRLResetTimestamp = 0L;
     long timestamp = System.currentTimeMillis();
     if (rateLimitRemaining > 0 && (globalRLResetTimestamp - timestamp) <= 0) {
@@ -86,7 +282,7 @@ public class RateLimitBucket<T, T4, T3> {
    *
    * @return int the remaining RateLimit
    */
-  public int getRateLimitRemaining() {
+  public synchronized int getRateLimitRemaining() {
     return rateLimitRemaining;
   }
 
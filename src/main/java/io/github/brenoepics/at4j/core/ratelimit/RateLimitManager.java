@@ -2,20 +2,30 @@ package io.github.brenoepics.at4j.core.ratelimit;
 
 import io.github.brenoepics.at4j.AzureApi;
 import io.github.brenoepics.at4j.core.exceptions.AzureException;
+import io.github.brenoepics.at4j.core.exceptions.CircuitBreakerOpenException;
 import io.github.brenoepics.at4j.util.logging.LoggerUtil;
+import io.github.brenoepics.at4j.util.rest.RestEndpoint;
 import io.github.brenoepics.at4j.util.rest.RestRequest;
-import io.github.brenoepics.at4j.util.rest.RestRequestHandler;
 import io.github.brenoepics.at4j.util.rest.RestRequestResponseInfoImpl;
 import io.github.brenoepics.at4j.util.rest.RestRequestResult;
 import org.slf4j.Logger;
 
 import java.net.http.HttpHeaders;
 import java.net.http.HttpResponse;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 /** This class manages rate-limits and keeps track of them. */
@@ -27,8 +37,46 @@ public class RateLimitManager<T, T3, T4> {
   /** The Azure API instance for this rate-limit manager. */
   private final AzureApi api;
 
-  /** All buckets. */
-  private final Set<RateLimitBucket<T, T4, T3>> buckets = new HashSet<>();
+  /**
+   * The buckets, one per endpoint. They are all created up front and never removed, so the map is
+   * only read afterwards and needs no lock.
+   */
+  private final Map<RestEndpoint, RateLimitBucket<T, T4, T3>> buckets =
+      new EnumMap<>(RestEndpoint.class);
+
+  /**
+   * The requests which wait to be admitted per priority, if the maximum of pending requests is
+   * reached.
+   */
+  private final PriorityRequestQueue waitingRequests = new PriorityRequestQueue();
+
+  /** The amount of admitted requests which did not finish yet. */
+  private final AtomicInteger pendingRequests = new AtomicInteger();
+
+  /** The maximum amount of pending requests, or 0 if it is unlimited. */
+  private volatile int maxPendingRequests = 0;
+
+  /** What happens to requests which exceed the maximum of pending requests. */
+  private volatile PendingRequestPolicy pendingRequestPolicy = PendingRequestPolicy.REJECT;
+
+  /** The adaptive concurrency limits per endpoint, if the limit of the endpoint adapts. */
+  private final Map<RestEndpoint, AdaptiveConcurrencyLimit> adaptiveLimits =
+      new ConcurrentHashMap<>();
+
+  /** The circuit breakers per endpoint, if the endpoint has one. */
+  private final Map<RestEndpoint, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+  /** The limiters of the translated characters. */
+  private final List<CharacterRateLimiter> characterLimiters = new CopyOnWriteArrayList<>();
+
+  /** The policy for retrying failed requests, or {@code null} if they are not retried. */
+  private volatile RetryPolicy retryPolicy;
+
+  /** The budget of the retries, which belongs to the retry policy. */
+  private volatile RetryBudget retryBudget;
+
+  /** The default maximum amount of concurrent requests per endpoint. */
+  public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 1;
 
   /** The header for rate-limit remaining information. */
   public static final String RATE_LIMITED_HEADER = "X-RateLimit-Remaining";
@@ -49,6 +97,175 @@ public class RateLimitManager<T, T3, T4> {
    */
   public RateLimitManager(AzureApi api) {
     this.api = api;
+    for (RestEndpoint endpoint : RestEndpoint.values()) {
+      buckets.put(endpoint, new RateLimitBucket<>(endpoint, DEFAULT_MAX_CONCURRENT_REQUESTS));
+    }
+  }
+
+  /**
+   * Sets the maximum amount of requests to the given endpoint which may be in-flight at once. Rate
+   * limits reported by Azure are still honored.
+   *
+   * @param endpoint The endpoint.
+   * @param maxConcurrentRequests The maximum amount of concurrent requests, at least 1.
+   * @throws IllegalArgumentException If the maximum is less than 1.
+   */
+  public void setMaxConcurrentRequests(RestEndpoint endpoint, int maxConcurrentRequests) {
+    if (maxConcurrentRequests < 1) {
+      throw new IllegalArgumentException("The maximum of concurrent requests must be at least 1");
+    }
+
+    buckets.get(endpoint).setMaxConcurrentRequests(maxConcurrentRequests);
+  }
+
+  /**
+   * Lets the maximum amount of requests to the given endpoint which may be in-flight at once adapt
+   * to the latency and the 429 responses of Azure, instead of using a fixed maximum.
+   *
+   * @param endpoint The endpoint.
+   * @param limit The adaptive limit.
+   * @see AdaptiveConcurrencyLimit
+   */
+  public void setAdaptiveConcurrency(RestEndpoint endpoint, AdaptiveConcurrencyLimit limit) {
+    adaptiveLimits.put(endpoint, Objects.requireNonNull(limit));
+    setMaxConcurrentRequests(endpoint, limit.getLimit());
+  }
+
+  /**
+   * Gets the adaptive concurrency limit of the given endpoint.
+   *
+   * @param endpoint The endpoint.
+   * @return The adaptive limit or an empty optional if the endpoint has a fixed maximum.
+   */
+  public Optional<AdaptiveConcurrencyLimit> getAdaptiveConcurrency(RestEndpoint endpoint) {
+    return Optional.ofNullable(adaptiveLimits.get(endpoint));
+  }
+
+  /**
+   * Gets the maximum amount of requests to the given endpoint which may be in-flight at once.
+   *
+   * @param endpoint The endpoint.
+   * @return The maximum amount of concurrent requests.
+   */
+  public int getMaxConcurrentRequests(RestEndpoint endpoint) {
+    return buckets.get(endpoint).getMaxConcurrentRequests();
+  }
+
+  /**
+   * Limits the amount of pending requests, which are all queued and in-flight requests of every
+   * endpoint. Requests exceeding the limit are handled according to the given policy, so neither
+   * the queues nor the amount of threads grow without bound if Azure slows down.
+   *
+   * <p>The limit only counts requests which are queued after it was set.
+   *
+   * @param maxPendingRequests The maximum amount of pending requests, or 0 for no limit.
+   * @param policy What happens to requests which exceed the limit.
+   * @throws IllegalArgumentException If the maximum is negative.
+   */
+  public void setMaxPendingRequests(int maxPendingRequests, PendingRequestPolicy policy) {
+    if (maxPendingRequests < 0) {
+      throw new IllegalArgumentException("The maximum of pending requests must not be negative");
+    }
+
+    this.pendingRequestPolicy = Objects.requireNonNull(policy);
+    this.maxPendingRequests = maxPendingRequests;
+    admitWaitingRequests();
+  }
+
+  /**
+   * Limits the amount of translated characters per period. Requests are delayed until their
+   * characters are available, so they are spread evenly instead of running into 429 responses.
+   * Several limits can be added, e.g. one per hour and one per minute, and all of them apply.
+   *
+   * @param limiter The limiter.
+   * @see io.github.brenoepics.at4j.util.rest.RestRequest#getCharacterCost()
+   */
+  public void addCharacterLimiter(CharacterRateLimiter limiter) {
+    characterLimiters.add(Objects.requireNonNull(limiter));
+  }
+
+  /**
+   * Protects the given endpoint with a circuit breaker. While the breaker is open, requests to the
+   * endpoint fail immediately with a {@link CircuitBreakerOpenException} instead of being sent.
+   *
+   * @param endpoint The endpoint.
+   * @param circuitBreaker The circuit breaker.
+   * @see CircuitBreaker
+   */
+  public void setCircuitBreaker(RestEndpoint endpoint, CircuitBreaker circuitBreaker) {
+    circuitBreakers.put(endpoint, Objects.requireNonNull(circuitBreaker));
+  }
+
+  /**
+   * Gets the circuit breaker of the given endpoint, e.g. to report its state in health checks.
+   *
+   * @param endpoint The endpoint.
+   * @return The circuit breaker or an empty optional if the endpoint has none.
+   */
+  public Optional<CircuitBreaker> getCircuitBreaker(RestEndpoint endpoint) {
+    return Optional.ofNullable(circuitBreakers.get(endpoint));
+  }
+
+  /**
+   * Retries requests which failed with a transient error, e.g. a connection reset or a 503
+   * response. A failed request is queued again after a backoff, without blocking a thread, and its
+   * future only fails once the policy gives up. By default, failed requests are not retried.
+   *
+   * @param retryPolicy The policy, or {@code null} to not retry failed requests.
+   * @see RetryPolicy
+   */
+  public void setRetryPolicy(RetryPolicy retryPolicy) {
+    if (retryPolicy != null) {
+      // Set the budget first, so it exists once the policy is visible
+      this.retryBudget = new RetryBudget(retryPolicy);
+    }
+    this.retryPolicy = retryPolicy;
+  }
+
+  /**
+   * Gets the policy for retrying failed requests.
+   *
+   * @return The policy or an empty optional if failed requests are not retried.
+   */
+  public Optional<RetryPolicy> getRetryPolicy() {
+    return Optional.ofNullable(retryPolicy);
+  }
+
+  /**
+   * Gets the limiters of the translated characters.
+   *
+   * @return The limiters.
+   */
+  public List<CharacterRateLimiter> getCharacterLimiters() {
+    return Collections.unmodifiableList(characterLimiters);
+  }
+
+  /**
+   * Gets the maximum amount of pending requests.
+   *
+   * @return The maximum amount of pending requests, or 0 if it is unlimited.
+   */
+  public int getMaxPendingRequests() {
+    return maxPendingRequests;
+  }
+
+  /**
+   * Gets the amount of admitted requests which did not finish yet. Only counted while the amount of
+   * pending requests is limited.
+   *
+   * @return The amount of pending requests.
+   */
+  public int getPendingRequests() {
+    return pendingRequests.get();
+  }
+
+  /**
+   * Gets the amount of requests which wait to be admitted.
+   *
+   * @return The amount of waiting requests.
+   */
+  public int getWaitingRequests() {
+    return waitingRequests.size();
   }
 
   /**
@@ -58,6 +275,155 @@ public class RateLimitManager<T, T3, T4> {
    * @param request The request to queue.
    */
   public void queueRequest(RestRequest request) {
+    if (maxPendingRequests == 0) {
+      dispatchRequest(request);
+      return;
+    }
+
+    if (tryAdmit()) {
+      trackAndDispatchRequest(request);
+      return;
+    }
+
+    if (pendingRequestPolicy == PendingRequestPolicy.REJECT) {
+      request
+          .getResult()
+          .completeExceptionally(
+              new RejectedExecutionException(
+                  "The maximum of " + maxPendingRequests + " pending requests is reached"));
+      return;
+    }
+
+    waitingRequests.add(request);
+    // A request may have finished in the meantime
+    admitWaitingRequests();
+  }
+
+  /**
+   * Reserves a place for a pending request, if the maximum is not reached.
+   *
+   * @return Whether a place was reserved.
+   */
+  private boolean tryAdmit() {
+    while (true) {
+      int max = maxPendingRequests;
+      int pending = pendingRequests.get();
+      if (max != 0 && pending >= max) {
+        return false;
+      }
+      if (pendingRequests.compareAndSet(pending, pending + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Admits waiting requests as long as the maximum of pending requests is not reached. The
+   * priorities share the free places by their weight, like the slots of a bucket.
+   */
+  private void admitWaitingRequests() {
+    while (!waitingRequests.isEmpty() && tryAdmit()) {
+      RestRequest request = waitingRequests.poll();
+      if (request == null) {
+        pendingRequests.decrementAndGet();
+        continue;
+      }
+      trackAndDispatchRequest(request);
+    }
+  }
+
+  /**
+   * Dispatches an admitted request and releases its place once it finished.
+   *
+   * @param request The admitted request.
+   */
+  private void trackAndDispatchRequest(RestRequest request) {
+    request
+        .getResult()
+        .whenComplete(
+            (result, throwable) -> {
+              pendingRequests.decrementAndGet();
+              admitWaitingRequests();
+            });
+    dispatchRequest(request);
+  }
+
+  /**
+   * Adds the given request to its bucket and submits it, if the bucket has a free slot. If the
+   * characters of the request are not available yet, this happens once they are.
+   *
+   * @param request The request.
+   */
+  private void dispatchRequest(RestRequest request) {
+    // The request was aborted while it waited to be admitted
+    if (request.getResult().isDone()) {
+      return;
+    }
+
+    CircuitBreaker circuitBreaker = circuitBreakers.get(request.getEndpoint());
+    if (circuitBreaker != null && circuitBreaker.getState() == CircuitBreakerState.OPEN) {
+      failCircuitBreakerOpen(request);
+      return;
+    }
+
+    // Retries and requests re-queued after a rate-limit don't pass here, so each counts once
+    if (retryPolicy != null) {
+      retryBudget.onRequest();
+    }
+
+    long delay = reserveCharacters(request);
+    if (delay > 0) {
+      logger.debug("Delaying request to {} for {}ns to respect character limits", request, delay);
+      api.getThreadPool()
+          .getScheduler()
+          .schedule(() -> enqueueRequest(request), delay, TimeUnit.NANOSECONDS);
+      return;
+    }
+
+    enqueueRequest(request);
+  }
+
+  /**
+   * Reserves the characters of the given request at every character limiter.
+   *
+   * @param request The request.
+   * @return How long to wait until the characters are available, in nanoseconds.
+   */
+  private long reserveCharacters(RestRequest request) {
+    long characters = request.getCharacterCost();
+    if (characters <= 0 || characterLimiters.isEmpty()) {
+      return 0;
+    }
+
+    long delay = 0;
+    for (CharacterRateLimiter limiter : characterLimiters) {
+      delay = Math.max(delay, limiter.reserve(characters));
+    }
+    return delay;
+  }
+
+  /**
+   * Refunds the characters of the given request at every character limiter, because it will never
+   * be sent. Requests which were sent already keep their characters, as Azure may have counted
+   * them, except for rate-limited attempts, which are not counted as retries.
+   *
+   * @param request The request.
+   */
+  private void refundCharacters(RestRequest request) {
+    long characters = request.getCharacterCost();
+    if (characters <= 0 || request.getRetries() > 0) {
+      return;
+    }
+
+    characterLimiters.forEach(limiter -> limiter.refund(characters));
+  }
+
+  /**
+   * Adds the given request to its bucket and submits it, if the bucket has a free slot.
+   *
+   * @param request The request.
+   */
+  private void enqueueRequest(RestRequest request) {
     Optional<RateLimitBucket<T, T4, T3>> searchBucket = searchBucket(request);
 
     if (searchBucket.isEmpty()) {
@@ -68,115 +434,303 @@ public class RateLimitManager<T, T3, T4> {
   }
 
   /**
-   * Submits the request to the given bucket.
+   * Submits the next request of the given bucket, if the bucket has a free slot. The request is
+   * sent asynchronously, so no thread is blocked while waiting for Azure to respond. Once the
+   * response arrived, the slot is released and the next request of the bucket gets submitted.
+   *
+   * <p>If the bucket is rate-limited, the submission is scheduled for the moment the rate-limit
+   * resets instead, so no thread is blocked while waiting for it either.
    *
    * @param bucket The bucket to submit the request to.
    */
-  private void submitRequest(RateLimitBucket<T, T4, T3> bucket) {
-    RestRequest currentRequest = bucket.peekRequestFromQueue();
-    RestRequestResult result = null;
+  void submitRequest(RateLimitBucket<T, T4, T3> bucket) {
+    RestRequest currentRequest = bucket.acquireSlot();
+    if (currentRequest == null) {
+      int delay = bucket.getTimeTillSpaceGetsAvailable();
+      // Every queued, finished and retried request ends up here, but one wake-up is enough
+      if (delay > 0 && bucket.peekRequestFromQueue() != null && bucket.tryScheduleSubmission()) {
+        logger.debug(
+            "Delaying requests to {} for {}ms to prevent hitting rate-limits", bucket, delay);
+        api.getThreadPool()
+            .getScheduler()
+            .schedule(
+                () -> {
+                  bucket.onScheduledSubmission();
+                  api.getThreadPool().getExecutorService().submit(() -> submitRequest(bucket));
+                },
+                delay,
+                TimeUnit.MILLISECONDS);
+      }
+      return;
+    }
 
-    long responseTimestamp = System.currentTimeMillis();
+    CircuitBreaker circuitBreaker = circuitBreakers.get(bucket.getEndpoint());
+    boolean aborted = currentRequest.getResult().isDone();
+    if (aborted || (circuitBreaker != null && !circuitBreaker.tryAcquire())) {
+      if (!aborted) {
+        failCircuitBreakerOpen(currentRequest);
+      }
+      refundCharacters(currentRequest);
+      bucket.releaseSlot();
+      if (bucket.peekRequestFromQueue() != null) {
+        api.getThreadPool().getExecutorService().submit(() -> submitRequest(bucket));
+      }
+      return;
+    }
 
-    while (currentRequest != null) {
-      RestRequestHandler newResult =
-          handleCurrentRequest(result, currentRequest, bucket, responseTimestamp);
+    long start = System.nanoTime();
+    currentRequest
+        .executeAsync()
+        .whenComplete(
+            (result, throwable) -> {
+              if (circuitBreaker != null) {
+                recordCircuitBreaker(circuitBreaker, throwable);
+              }
+              boolean grown =
+                  updateAdaptiveLimit(bucket, System.nanoTime() - start, result, throwable);
+              handleCurrentRequest(currentRequest, bucket, result, throwable);
+              // The next request was already submitted, but the new slot needs a request, too
+              if (grown && bucket.peekRequestFromQueue() != null) {
+                api.getThreadPool().getExecutorService().submit(() -> submitRequest(bucket));
+              }
+            });
+  }
 
-      result = newResult.getResult();
-      currentRequest = newResult.getCurrentRequest();
-      responseTimestamp = newResult.getResponseTimestamp();
+  /**
+   * Updates the adaptive concurrency limit of the bucket's endpoint with the outcome of a request.
+   *
+   * @param bucket The bucket the request belongs to.
+   * @param latencyNanos How long the request took, in nanoseconds.
+   * @param result The result of the request or {@code null} if it failed.
+   * @param throwable The exception of the request or {@code null} if it succeeded.
+   * @return Whether the limit grew.
+   */
+  boolean updateAdaptiveLimit(
+      RateLimitBucket<T, T4, T3> bucket,
+      long latencyNanos,
+      RestRequestResult result,
+      Throwable throwable) {
+    AdaptiveConcurrencyLimit adaptiveLimit = adaptiveLimits.get(bucket.getEndpoint());
+    if (adaptiveLimit == null) {
+      return false;
+    }
+
+    if (result == null && throwable != null) {
+      Throwable cause = unwrapCompletionException(throwable);
+      result = cause instanceof AzureException ? mapAzureException(cause) : null;
+    }
+    int statusCode =
+        result == null || result.getResponse() == null ? -1 : result.getResponse().statusCode();
+    // Azure is overloaded or we exceed its limits
+    boolean overloaded = statusCode == 429 || statusCode == 503;
+
+    int previous = adaptiveLimit.getLimit();
+    int limit = adaptiveLimit.onSample(latencyNanos, bucket.getInFlightRequests(), overloaded);
+    if (limit == previous) {
+      return false;
     }
+
+    logger.debug("Adapted the concurrency limit of {} from {} to {}", bucket, previous, limit);
+    setMaxConcurrentRequests(bucket.getEndpoint(), limit);
+    return limit > previous;
   }
 
   /**
-   * Handles the current request.
+   * Handles the outcome of the current request and submits the next request of the bucket, if
+   * there is any.
    *
-   * @param result The result of the previous request.
    * @param currentRequest The current request.
    * @param bucket The bucket the request belongs to.
-   * @param responseTimestamp The timestamp directly after the response finished.
-   * @return The result of the current request.
+   * @param result The result of the current request or {@code null} if it failed.
+   * @param throwable The exception of the current request or {@code null} if it succeeded.
    */
-  RestRequestHandler handleCurrentRequest(
-      RestRequestResult result,
+  void handleCurrentRequest(
       RestRequest currentRequest,
       RateLimitBucket<T, T4, T3> bucket,
-      long responseTimestamp) {
+      RestRequestResult result,
+      Throwable throwable) {
+    long responseTimestamp = System.currentTimeMillis();
+    RetryPolicy policy = retryPolicy;
+
+    boolean retry = false;
+    long backoff = 0;
+    if (throwable != null) {
+      Throwable cause = unwrapCompletionException(throwable);
+      if (currentRequest.getResult().isDone() && !(cause instanceof CancellationException)) {
+        logger.warn("Exception for a already done request. This should not happen!", cause);
+      }
 
-    try {
-      waitUntilSpaceGetsAvailable(bucket);
+      if (policy != null) {
+        backoff = policy.getBackoff(currentRequest.getRetries() + 1).toNanos();
+      }
+      retry = shouldRetry(policy, currentRequest, cause, backoff);
+      if (retry) {
+        // Keep the future pending, the error response must not complete it
+        result = null;
+      } else {
+        if (cause instanceof AzureException) {
+          result = mapAzureException(cause);
+        }
+
+        currentRequest.getResult().completeExceptionally(cause);
+      }
+    }
 
-      // Execute the request and get the result
-      result = currentRequest.executeBlocking();
-      responseTimestamp = System.currentTimeMillis();
+    if (result != null && result.getResponse() != null) {
+      handleResponse(currentRequest, result, bucket, responseTimestamp);
+    }
 
-    } catch (Exception e) {
-      responseTimestamp = System.currentTimeMillis();
-      if (currentRequest.getResult().isDone()) {
-        logger.warn("Exception for a already done request. This should not happen!", e);
-      }
+    // The request didn't finish, so let's try again before any other request
+    if (!retry && !currentRequest.getResult().isDone()) {
+      bucket.addRequestToQueueHead(currentRequest);
+    }
 
-      if (e instanceof AzureException) {
-        result = mapAzureException(e);
-      }
+    bucket.releaseSlot();
+    if (retry) {
+      scheduleRetry(currentRequest, backoff);
+    }
+    if (retryRequest(bucket) == null) {
+      return;
+    }
 
-      currentRequest.getResult().completeExceptionally(e);
-    } finally {
-      if (result != null && result.getResponse() != null) {
-        handleResponse(currentRequest, result, bucket, responseTimestamp);
-      }
+    api.getThreadPool().getExecutorService().submit(() -> submitRequest(bucket));
+  }
 
-      // The request didn't finish, so let's try again
-      if (currentRequest.getResult().isDone()) {
-        currentRequest = retryRequest(bucket);
-      }
+  /**
+   * Fails the given request, because the circuit breaker of its endpoint is open.
+   *
+   * @param request The request.
+   */
+  private void failCircuitBreakerOpen(RestRequest request) {
+    request
+        .getResult()
+        .completeExceptionally(
+            new CircuitBreakerOpenException(
+                request.getOrigin(),
+                "The circuit breaker of " + request.getEndpoint() + " is open",
+                request.asRestRequestInformation()));
+  }
+
+  /**
+   * Records the outcome of a sent request in the circuit breaker of its endpoint.
+   *
+   * @param circuitBreaker The circuit breaker.
+   * @param throwable The exception of the request, or {@code null} if it succeeded.
+   */
+  void recordCircuitBreaker(CircuitBreaker circuitBreaker, Throwable throwable) {
+    if (throwable == null) {
+      circuitBreaker.onSuccess();
+      return;
     }
 
-    return new RestRequestHandler(result, currentRequest, responseTimestamp);
+    Throwable cause = unwrapCompletionException(throwable);
+    if (cause instanceof CancellationException) {
+      // The request was aborted, which tells nothing about Azure
+      circuitBreaker.onCancelled();
+      return;
+    }
+    if (!(cause instanceof AzureException)) {
+      // The request didn't reach Azure or timed out
+      circuitBreaker.onFailure();
+      return;
+    }
+
+    RestRequestResult result = mapAzureException(cause);
+    int statusCode =
+        result == null || result.getResponse() == null ? -1 : result.getResponse().statusCode();
+    if (statusCode >= 500 || statusCode == 408) {
+      circuitBreaker.onFailure();
+    } else {
+      circuitBreaker.onSuccess();
+    }
   }
 
   /**
-   * Waits until space gets available in the given bucket.
+   * Checks if the given failed request should be retried and takes the retry from the budget.
    *
-   * @param bucket The bucket to wait for.
+   * @param policy The retry policy, or {@code null} if requests are not retried.
+   * @param request The failed request.
+   * @param cause The cause of the failure.
+   * @param backoff The backoff before the retry, in nanoseconds.
+   * @return Whether the request should be retried.
    */
-  void waitUntilSpaceGetsAvailable(RateLimitBucket<T, T4, T3> bucket) {
-    int sleepTime = bucket.getTimeTillSpaceGetsAvailable();
-    if (sleepTime > 0) {
-      logger.debug(
-          "Delaying requests to {} for {}ms to prevent hitting rate-limits", bucket, sleepTime);
+  private boolean shouldRetry(
+      RetryPolicy policy, RestRequest request, Throwable cause, long backoff) {
+    if (policy == null
+        || request.getResult().isDone()
+        || request.getRetries() + 1 >= policy.getMaxAttempts()
+        || !policy.isRetryable(cause)) {
+      return false;
     }
 
-    while (sleepTime > 0) {
-      try {
-        Thread.sleep(sleepTime);
-      } catch (InterruptedException e) {
-        logger.warn("We got interrupted while waiting for a rate limit!", e);
-        Thread.currentThread().interrupt(); // Re-interrupt the thread
-      }
-      // Update in case something changed (e.g., because we hit a global rate-limit)
-      sleepTime = bucket.getTimeTillSpaceGetsAvailable();
+    // E.g. the HttpTimeoutException of the deadline itself, which is an IOException
+    long deadline = request.getDeadline();
+    if (deadline != 0 && deadline - System.nanoTime() <= backoff) {
+      logger.debug("Not retrying {} because its deadline passes before the retry", request, cause);
+      return false;
+    }
+
+    if (!retryBudget.tryRetry()) {
+      logger.debug("Not retrying {} because the retry budget is exhausted", request, cause);
+      return false;
     }
+    return true;
   }
 
   /**
-   * Retries the request of the given bucket.
+   * Queues the given failed request again once its backoff passed.
    *
-   * @param bucket The bucket to retry the request for.
-   * @return The request that was retried.
+   * @param request The failed request.
+   * @param backoff The backoff before the retry, in nanoseconds.
    */
-  RestRequest retryRequest(RateLimitBucket<T, T4, T3> bucket) {
-    synchronized (buckets) {
-      bucket.pollRequestFromQueue();
-      RestRequest request = bucket.peekRequestFromQueue();
-      if (request == null) {
-        buckets.remove(bucket);
-      }
+  private void scheduleRetry(RestRequest request, long backoff) {
+    request.setRetries(request.getRetries() + 1);
+    logger.debug("Retrying {} in {}ns (retry {})", request, backoff, request.getRetries());
+    // The characters of the request were reserved by the first attempt already
+    api.getThreadPool()
+        .getScheduler()
+        .schedule(() -> enqueueRequest(request), backoff, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Unwraps the cause of a {@link CompletionException}.
+   *
+   * @param throwable The throwable to unwrap.
+   * @return The cause of the completion exception or the throwable itself.
+   */
+  private static Throwable unwrapCompletionException(Throwable throwable) {
+    if (throwable instanceof CompletionException && throwable.getCause() != null) {
+      return throwable.getCause();
+    }
+    return throwable;
+  }
 
-      return request;
+  /**
+   * Removes the given request from the queues, e.g. because it was cancelled. The characters of a
+   * request which was queued in its bucket are refunded. Requests which are in-flight already are
+   * not affected.
+   *
+   * @param request The request to remove.
+   */
+  public void removeRequest(RestRequest request) {
+    if (getMatchingBucket(request).removeRequestFromQueue(request)) {
+      refundCharacters(request);
+    } else {
+      // Waiting requests did not reserve their characters yet
+      waitingRequests.remove(request);
     }
   }
 
+  /**
+   * Gets the next request of the given bucket.
+   *
+   * @param bucket The bucket to get the next request for.
+   * @return The next request or {@code null} if the queue is empty.
+   */
+  RestRequest retryRequest(RateLimitBucket<T, T4, T3> bucket) {
+    return bucket.peekRequestFromQueue();
+  }
+
   /**
    * Maps the given exception to a {@link RestRequestResult}.
    *
@@ -198,18 +752,14 @@ public class RateLimitManager<T, T3, T4> {
    * @return The bucket that fits to the request.
    */
   Optional<RateLimitBucket<T, T4, T3>> searchBucket(RestRequest request) {
-    synchronized (buckets) {
-      RateLimitBucket<T, T4, T3> bucket = getMatchingBucket(request);
+    RateLimitBucket<T, T4, T3> bucket = getMatchingBucket(request);
 
-      // Check if it is already in the queue, send not present
-      if (bucket.peekRequestFromQueue() != null) {
-        return Optional.empty();
-      }
+    // The request is queued before the slot is checked. A request which finishes in between
+    // releases its slot first and then looks at the queue, so either way someone submits it
+    bucket.addRequestToQueue(request);
 
-      buckets.add(bucket);
-      bucket.addRequestToQueue(request);
-      return Optional.of(bucket);
-    }
+    // Only submit if the bucket may send another request right now, send not present
+    return bucket.hasFreeSlot() ? Optional.of(bucket) : Optional.empty();
   }
 
   /**
@@ -219,12 +769,7 @@ public class RateLimitManager<T, T3, T4> {
    * @return The bucket that matches the request.
    */
   RateLimitBucket<T, T4, T3> getMatchingBucket(RestRequest request) {
-    synchronized (buckets) {
-      return buckets.stream()
-          .filter(b -> b.endpointMatches(request.getEndpoint()))
-          .findAny()
-          .orElseGet(() -> new RateLimitBucket<>(request.getEndpoint()));
-    }
+    return buckets.get(request.getEndpoint());
   }
 
   /**
@@ -241,7 +786,7 @@ public class RateLimitManager<T, T3, T4> {
       RateLimitBucket<T, T4, T3> bucket,
       long responseTimestamp) {
     try {
-      HttpResponse<String> response = result.getResponse();
+      HttpResponse<?> response = result.getResponse();
 
       // Check if we did not receive a rate-limit response
       if (result.getResponse().statusCode() != 429) {
@@ -263,8 +808,7 @@ public class RateLimitManager<T, T3, T4> {
 
       logger.debug("Received a 429 response from Azure! Recalculating time offset...");
 
-      bucket.setRateLimitRemaining(0);
-      bucket.setRateLimitResetTimestamp(responseTimestamp + retryAfter);
+      bucket.onRateLimited(responseTimestamp + retryAfter);
 
     } catch (Exception e) {
       logger.warn("Encountered unexpected exception.", e);
@@ -283,8 +827,7 @@ public class RateLimitManager<T, T3, T4> {
         "You were sending a very large amount of invalid requests.");
     int retryAfter =
         Integer.parseInt(getHeader(headers, RATE_LIMITED_HEADER_CLOUDFLARE, "10")) * 1000;
-    bucket.setRateLimitRemaining(retryAfter);
-    bucket.setRateLimitResetTimestamp(System.currentTimeMillis() + retryAfter);
+    bucket.onRateLimited(System.currentTimeMillis() + retryAfter);
   }
 
   /**
@@ -310,8 +853,8 @@ public class RateLimitManager<T, T3, T4> {
     String reset = getHeader(headers, RATE_LIMIT_RESET_HEADER, "0");
 
     // Update bucket information
-    bucket.setRateLimitRemaining(Integer.parseInt(remaining));
-    bucket.setRateLimitResetTimestamp((long) (Double.parseDouble(reset) * 1000));
+    bucket.updateRateLimit(
+        Integer.parseInt(remaining), (long) (Double.parseDouble(reset) * 1000));
   }
 
   /**
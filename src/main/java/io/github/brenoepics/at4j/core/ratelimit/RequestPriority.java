@@ -0,0 +1,40 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+/**
+ * This enum describes the priority of a request. Every endpoint has a queue per priority, and the
+ * queues share the slots of the endpoint by their weight. A higher priority gets more slots, while
+ * a lower priority still gets its share, so it never starves.
+ *
+ * <ul>
+ *   <li>INTERACTIVE: Requests a user waits for, e.g. chat messages.
+ *   <li>NORMAL: The default priority.
+ *   <li>BULK: Background jobs, e.g. backfills, which use the leftover capacity.
+ * </ul>
+ *
+ * @see io.github.brenoepics.at4j.util.rest.RestRequest#setPriority(RequestPriority)
+ */
+public enum RequestPriority {
+  INTERACTIVE(16), // Requests a user waits for.
+  NORMAL(4), // The default priority.
+  BULK(1); // Background jobs.
+
+  private final int weight;
+
+  /**
+   * Creates a new priority.
+   *
+   * @param weight The share of the slots of an endpoint.
+   */
+  RequestPriority(int weight) {
+    this.weight = weight;
+  }
+
+  /**
+   * Gets the share of the slots of an endpoint, relative to the other priorities.
+   *
+   * @return The weight.
+   */
+  public int getWeight() {
+    return weight;
+  }
+}
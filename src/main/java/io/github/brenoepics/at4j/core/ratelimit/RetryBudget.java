@@ -0,0 +1,48 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+/**
+ * The budget of the retries of one rate-limit manager. Every sent request adds a share of a retry
+ * and every retry takes a whole one, up to a reserve.
+ *
+ * @see RetryPolicy#setRetryBudget(double, int)
+ */
+class RetryBudget {
+
+  // The share of a retry which every sent request adds
+  private final double ratio;
+
+  // The maximum amount of retries in the budget
+  private final double reserve;
+
+  // The amount of retries in the budget
+  private double available;
+
+  /**
+   * Creates a new budget which starts with a full reserve.
+   *
+   * @param policy The policy which defines the budget.
+   */
+  RetryBudget(RetryPolicy policy) {
+    this.ratio = policy.getBudgetRatio();
+    this.reserve = policy.getBudgetReserve();
+    this.available = reserve;
+  }
+
+  /** Adds the share of a sent request to the budget. */
+  synchronized void onRequest() {
+    available = Math.min(reserve, available + ratio);
+  }
+
+  /**
+   * Takes a retry from the budget, if there is one.
+   *
+   * @return Whether a retry was taken.
+   */
+  synchronized boolean tryRetry() {
+    if (available < 1) {
+      return false;
+    }
+    available--;
+    return true;
+  }
+}
@@ -0,0 +1,200 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+import io.github.brenoepics.at4j.core.exceptions.InternalServerErrorException;
+import io.github.brenoepics.at4j.core.exceptions.RequestTimeoutException;
+import io.github.brenoepics.at4j.core.exceptions.ServiceUnavailableException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class describes how requests which failed with a transient error are retried. A failed
+ * request is queued again after an exponential backoff with full jitter, so clients which failed
+ * at the same time don't retry at the same time. Retries are limited by a budget, which allows a
+ * share of the sent requests to be retried, so an outage doesn't multiply the load on Azure.
+ *
+ * @see RateLimitManager#setRetryPolicy(RetryPolicy)
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class RetryPolicy {
+  // The maximum amount of attempts per request, including the first one
+  private int maxAttempts = 3;
+  // The backoff before the first retry
+  private Duration initialBackoff = Duration.ofMillis(100);
+  // The maximum backoff before a retry
+  private Duration maxBackoff = Duration.ofSeconds(10);
+  // The exceptions which are retried
+  private Set<Class<? extends Throwable>> retryableExceptions =
+      Set.of(
+          IOException.class,
+          ServiceUnavailableException.class,
+          RequestTimeoutException.class,
+          InternalServerErrorException.class);
+  // The share of the sent requests which may be retried
+  private double budgetRatio = 0.2;
+  // The amount of retries which are allowed regardless of the amount of sent requests
+  private int budgetReserve = 10;
+
+  /**
+   * Sets the maximum amount of attempts per request, including the first one.
+   *
+   * @param maxAttempts The maximum amount of attempts, at least 1.
+   * @return The current instance of RetryPolicy.
+   * @throws IllegalArgumentException If the maximum is less than 1.
+   */
+  public RetryPolicy setMaxAttempts(int maxAttempts) {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("The maximum of attempts must be at least 1");
+    }
+    this.maxAttempts = maxAttempts;
+    return this;
+  }
+
+  /**
+   * Sets the backoff before a retry. It starts at the initial backoff and doubles with every retry
+   * up to the maximum. The actual backoff is picked at random between zero and this value.
+   *
+   * @param initialBackoff The backoff before the first retry, must be positive.
+   * @param maxBackoff The maximum backoff, must not be less than the initial backoff.
+   * @return The current instance of RetryPolicy.
+   * @throws IllegalArgumentException If a backoff is out of range.
+   */
+  public RetryPolicy setBackoff(Duration initialBackoff, Duration maxBackoff) {
+    if (initialBackoff.isNegative() || initialBackoff.isZero()) {
+      throw new IllegalArgumentException("The initial backoff must be positive");
+    }
+    if (maxBackoff.compareTo(initialBackoff) < 0) {
+      throw new IllegalArgumentException("The maximum backoff must not be less than the initial");
+    }
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+    return this;
+  }
+
+  /**
+   * Sets the exceptions which are retried, including their subclasses. By default, these are
+   * {@link IOException}, {@link ServiceUnavailableException}, {@link RequestTimeoutException} and
+   * {@link InternalServerErrorException}.
+   *
+   * @param retryableExceptions The exceptions.
+   * @return The current instance of RetryPolicy.
+   */
+  public RetryPolicy setRetryableExceptions(Set<Class<? extends Throwable>> retryableExceptions) {
+    this.retryableExceptions = Set.copyOf(retryableExceptions);
+    return this;
+  }
+
+  /**
+   * Sets the budget of the retries. Every sent request adds the given ratio to the budget and every
+   * retry takes one from it. The budget holds at most the reserve, which is also what it starts
+   * with, so a short burst of failures is retried, while a lasting outage is only retried at the
+   * given ratio.
+   *
+   * @param ratio The share of the sent requests which may be retried, between 0 and 1.
+   * @param reserve The maximum amount of retries the budget holds, must not be negative.
+   * @return The current instance of RetryPolicy.
+   * @throws IllegalArgumentException If a value is out of range.
+   */
+  public RetryPolicy setRetryBudget(double ratio, int reserve) {
+    if (ratio < 0 || ratio > 1) {
+      throw new IllegalArgumentException("The ratio of retries must be between 0 and 1");
+    }
+    if (reserve < 0) {
+      throw new IllegalArgumentException("The reserve of retries must not be negative");
+    }
+    this.budgetRatio = ratio;
+    this.budgetReserve = reserve;
+    return this;
+  }
+
+  /**
+   * Returns the maximum amount of attempts per request, including the first one.
+   *
+   * @return The maximum amount of attempts.
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * Returns the backoff before the first retry.
+   *
+   * @return The initial backoff.
+   */
+  public Duration getInitialBackoff() {
+    return initialBackoff;
+  }
+
+  /**
+   * Returns the maximum backoff before a retry.
+   *
+   * @return The maximum backoff.
+   */
+  public Duration getMaxBackoff() {
+    return maxBackoff;
+  }
+
+  /**
+   * Returns the exceptions which are retried, including their subclasses.
+   *
+   * @return The exceptions.
+   */
+  public Set<Class<? extends Throwable>> getRetryableExceptions() {
+    return retryableExceptions;
+  }
+
+  /**
+   * Returns the share of the sent requests which may be retried.
+   *
+   * @return The ratio.
+   */
+  public double getBudgetRatio() {
+    return budgetRatio;
+  }
+
+  /**
+   * Returns the maximum amount of retries the budget holds.
+   *
+   * @return The reserve.
+   */
+  public int getBudgetReserve() {
+    return budgetReserve;
+  }
+
+  /**
+   * Checks if the given exception is retried.
+   *
+   * @param throwable The exception.
+   * @return Whether the exception is an instance of a retryable exception.
+   */
+  public boolean isRetryable(Throwable throwable) {
+    return retryableExceptions.stream().anyMatch(type -> type.isInstance(throwable));
+  }
+
+  /**
+   * Gets a random backoff before the given retry.
+   *
+   * @param retry The retry, starting at 1.
+   * @return The backoff.
+   */
+  public Duration getBackoff(int retry) {
+    return getBackoff(retry, ThreadLocalRandom.current().nextDouble());
+  }
+
+  /**
+   * Gets the backoff before the given retry.
+   *
+   * @param retry The retry, starting at 1.
+   * @param random A random value between 0 (inclusive) and 1 (exclusive).
+   * @return The backoff.
+   */
+  Duration getBackoff(int retry, double random) {
+    // Doubling more than 62 times overflows, and the maximum is reached long before anyway
+    int doublings = Math.min(Math.max(retry - 1, 0), 62);
+    long initial = initialBackoff.toNanos();
+    long max = maxBackoff.toNanos();
+    long backoff = initial > (max >> doublings) ? max : initial << doublings;
+    return Duration.ofNanos((long) (backoff * random));
+  }
+}
@@ -1,6 +1,7 @@
 package io.github.brenoepics.at4j.core.thread;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 /** This class creates and contains thread pools which are used by AT4J. */
 public interface ThreadPool {
@@ -12,6 +13,14 @@ public interface ThreadPool {
    */
   ExecutorService getExecutorService();
 
+  /**
+   * Gets the used scheduler. It should only be used for short timer tasks which hand the actual
+   * work over to the {@link #getExecutorService() executor service}.
+   *
+   * @return The used scheduler.
+   */
+  ScheduledExecutorService getScheduler();
+
   /** Shutdowns the thread pool. */
   void shutdown();
 }
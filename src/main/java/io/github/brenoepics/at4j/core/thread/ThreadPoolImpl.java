@@ -3,6 +3,7 @@ package io.github.brenoepics.at4j.core.thread;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Optional;
 import java.util.concurrent.*;
 
 /** The implementation of {@link ThreadPool}. */
@@ -15,6 +16,9 @@ public class ThreadPoolImpl implements ThreadPool {
   private final Logger logger = LoggerFactory.getLogger(ThreadPoolImpl.class);
 
   private final ExecutorService executorService;
+  private final ScheduledExecutorService scheduler =
+      Executors.newScheduledThreadPool(
+          CORE_POOL_SIZE, new AT4JThreadFactory("AT4J - Central Scheduler - %d", true));
 
   public ThreadPoolImpl(ExecutorService executorService) {
     if (executorService == null) {
@@ -31,6 +35,7 @@ public class ThreadPoolImpl implements ThreadPool {
   public void shutdown() {
     logger.debug("Shutting down AT4J executor service.");
     executorService.shutdown();
+    scheduler.shutdown();
   }
 
   @Override
@@ -38,6 +43,11 @@ public class ThreadPoolImpl implements ThreadPool {
     return executorService;
   }
 
+  @Override
+  public ScheduledExecutorService getScheduler() {
+    return scheduler;
+  }
+
   public static ExecutorService newAt4jDefault() {
     return new ThreadPoolExecutor(
         CORE_POOL_SIZE,
@@ -47,4 +57,32 @@ public class ThreadPoolImpl implements ThreadPool {
         new SynchronousQueue<>(),
         new AT4JThreadFactory("AT4J - Central ExecutorService - %d", false));
   }
+
+  /**
+   * Creates an executor service which starts a new virtual thread for each task, if the running
+   * Java version supports virtual threads (Java 21 or newer). Blocked virtual threads don't occupy
+   * a platform thread, so waiting for rate-limits costs almost nothing.
+   *
+   * <p>The executor is created reflectively, as AT4J is compiled for Java 11.
+   *
+   * @return The executor service or an empty optional if virtual threads are not supported.
+   */
+  public static Optional<ExecutorService> newVirtualThreadExecutor() {
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder =
+          builderClass
+              .getMethod("name", String.class, long.class)
+              .invoke(builder, "AT4J - Virtual Thread - ", 0L);
+      ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      return Optional.of(
+          (ExecutorService)
+              Executors.class
+                  .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                  .invoke(null, factory));
+    } catch (ReflectiveOperationException e) {
+      return Optional.empty();
+    }
+  }
 }
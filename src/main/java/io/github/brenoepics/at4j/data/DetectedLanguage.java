@@ -1,6 +1,9 @@
 package io.github.brenoepics.at4j.data;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
 
 /** Represents a detected language. */
 public class DetectedLanguage {
@@ -124,6 +127,47 @@ public class DetectedLanguage {
     return detected;
   }
 
+  /**
+   * Reads a new instance of this class from a json parser which points at the start of a detected
+   * language object. Unknown fields, like the alternatives of a detection, are skipped.
+   *
+   * @param baseText The text analyzed for language detection.
+   * @param parser The parser.
+   * @return The new instance, or null if the object has no language or score.
+   * @throws IOException If the json could not be read.
+   */
+  public static DetectedLanguage ofJSON(String baseText, JsonParser parser) throws IOException {
+    String languageCode = null;
+    Float score = null;
+    boolean translationSupported = false;
+    boolean transliterationSupported = false;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "language":
+          languageCode = parser.getValueAsString();
+          break;
+        case "score":
+          score = parser.getFloatValue();
+          break;
+        case "isTranslationSupported":
+          translationSupported = parser.getValueAsBoolean();
+          break;
+        case "isTransliterationSupported":
+          transliterationSupported = parser.getValueAsBoolean();
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+
+    if (languageCode == null || score == null) return null;
+
+    return new DetectedLanguage(
+        baseText, languageCode, score, translationSupported, transliterationSupported);
+  }
+
   /**
    * Gets the text analyzed for language detection.
    *
@@ -1,6 +1,9 @@
 package io.github.brenoepics.at4j.data;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
 
 /** A translation of a text. This class is immutable. */
 public class Translation {
@@ -45,6 +48,34 @@ public class Translation {
     return new Translation(node.get("to").asText(), node.get("text").asText());
   }
 
+  /**
+   * Reads a Translation from a json parser which points at the start of a translation object.
+   * Fields other than the text and the target language, like the alignment, are skipped.
+   *
+   * @param parser The parser.
+   * @return The Translation, or null if the object has no text or target language.
+   * @throws IOException If the json could not be read.
+   */
+  public static Translation ofJSON(JsonParser parser) throws IOException {
+    String languageCode = null;
+    String text = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      if ("to".equals(field)) {
+        languageCode = parser.getValueAsString();
+      } else if ("text".equals(field)) {
+        text = parser.getValueAsString();
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    if (languageCode == null || text == null) return null;
+
+    return new Translation(languageCode, text);
+  }
+
   /**
    * Returns the language code for the translation.
    *
@@ -1,13 +1,16 @@
 package io.github.brenoepics.at4j.data.request;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.brenoepics.at4j.core.ratelimit.RequestPriority;
 import io.github.brenoepics.at4j.data.DetectedLanguage;
 import io.github.brenoepics.at4j.data.response.DetectResponse;
 import io.github.brenoepics.at4j.util.rest.RestRequestResult;
 
+import java.time.Duration;
 import java.util.*;
 
 /**
@@ -19,6 +22,10 @@ public class DetectLanguageParams {
 
   // The text to be analyzed for language detection
   private final LinkedHashMap<Integer, String> textList = new LinkedHashMap<>();
+  // The priority of the detection compared to other queued requests
+  private RequestPriority priority = RequestPriority.NORMAL;
+  // The time the detection may take, or null to use the default timeout
+  private Duration timeout;
 
   /**
    * Constructs a new DetectLanguageParams object with the specified text.
@@ -49,6 +56,54 @@ public class DetectLanguageParams {
     return this;
   }
 
+  /**
+   * Sets the priority of the detection. Requests of a higher priority are sent sooner than queued
+   * requests of a lower priority. The priority is not sent to Azure.
+   *
+   * @param priority The priority of the detection.
+   * @return this DetectLanguageParams object
+   */
+  public DetectLanguageParams setPriority(RequestPriority priority) {
+    this.priority = Objects.requireNonNull(priority);
+    return this;
+  }
+
+  /**
+   * Sets the time the detection may take, from queueing it until its response arrived. If it takes
+   * longer, it is aborted and fails with a {@link java.util.concurrent.TimeoutException}. A
+   * detection which is split into several requests applies the timeout to each of them.
+   *
+   * @param timeout The timeout, or {@code null} to use the default timeout of the api.
+   * @return this DetectLanguageParams object
+   * @throws IllegalArgumentException If the timeout is not positive.
+   * @see io.github.brenoepics.at4j.AzureApiBuilder#requestTimeout(Duration)
+   */
+  public DetectLanguageParams setTimeout(Duration timeout) {
+    if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+      throw new IllegalArgumentException("The timeout must be positive");
+    }
+    this.timeout = timeout;
+    return this;
+  }
+
+  /**
+   * Returns the priority of the detection.
+   *
+   * @return the priority of the detection, {@link RequestPriority#NORMAL} by default
+   */
+  public RequestPriority getPriority() {
+    return priority;
+  }
+
+  /**
+   * Returns the time the detection may take.
+   *
+   * @return the timeout, or {@code null} if the default timeout of the api is used
+   */
+  public Duration getTimeout() {
+    return timeout;
+  }
+
   /**
    * Returns the text to be analyzed for language detection.
    *
@@ -58,6 +113,30 @@ public class DetectLanguageParams {
     return textList;
   }
 
+  /**
+   * Splits these parameters into consecutive copies which respect the given limits. The texts keep
+   * their order, so the results of the copies can be concatenated in order.
+   *
+   * @param maxElements The maximum amount of texts per copy.
+   * @param maxCharacters The maximum amount of characters per copy. A single text which exceeds it
+   *     is put into a copy of its own.
+   * @return This instance if it already respects the limits, the copies otherwise.
+   */
+  public List<DetectLanguageParams> split(int maxElements, int maxCharacters) {
+    List<List<String>> chunks =
+        TextPartitioner.partition(getTexts().values(), maxElements, maxCharacters);
+    if (chunks.size() <= 1) {
+      return List.of(this);
+    }
+
+    List<DetectLanguageParams> copies = new ArrayList<>(chunks.size());
+    chunks.forEach(
+        chunk ->
+            copies.add(
+                new DetectLanguageParams(chunk).setPriority(priority).setTimeout(timeout)));
+    return copies;
+  }
+
   /**
    * Returns the body of the request as an ArrayNode. If the text is null or empty, it returns null.
    * Otherwise, it creates an ObjectNode with a single field 'Text' containing the text, and adds
@@ -78,6 +157,19 @@ public class DetectLanguageParams {
     return body;
   }
 
+  /**
+   * Encodes the body of the request as UTF-8 json, without building a json tree or a string first.
+   *
+   * @param factory The json factory which creates the generator.
+   * @return The body of the request, or null if there are no texts.
+   * @see #getBody()
+   */
+  public byte[] getBodyBytes(JsonFactory factory) {
+    if (getTexts() == null || getTexts().isEmpty()) return null;
+
+    return RequestBodyWriter.writeTexts(factory, getTexts().values());
+  }
+
   /**
    * Handles the response from the API. If the response is null, or the JSON body is null, or the
    * JSON body does not contain a field 'language', it returns an empty Optional. Otherwise, it
@@ -103,6 +195,25 @@ public class DetectLanguageParams {
     return Optional.of(responses);
   }
 
+  /**
+   * Handles the response from the API by streaming its json body straight into the detected
+   * languages. Unlike {@link #handleResponse(RestRequestResult)}, the body is neither decoded to a
+   * string nor parsed to a json tree first.
+   *
+   * @param response The response from the API.
+   * @return An Optional containing the DetectResponse object, or an empty Optional if the response
+   *     has no body, or the body is not a json array, or the array is empty.
+   */
+  public Optional<DetectResponse> parseResponse(RestRequestResult response) {
+    return ResponseReader.readArray(response, getTexts().values(), DetectedLanguage::ofJSON)
+        .map(
+            detectedLanguages -> {
+              DetectResponse responses = new DetectResponse();
+              detectedLanguages.forEach(responses::addDetectedLanguage);
+              return responses;
+            });
+  }
+
   /**
    * Creates a new instance of this class from a json node.
    *
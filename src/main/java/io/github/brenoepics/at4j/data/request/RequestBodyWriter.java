@@ -0,0 +1,63 @@
+package io.github.brenoepics.at4j.data.request;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
+/**
+ * This class writes the json array of texts which Azure expects as request body, without building
+ * a json tree or a string first.
+ */
+class RequestBodyWriter {
+
+  /** Private constructor to prevent instantiation of this utility class. */
+  private RequestBodyWriter() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Writes the texts as {@code [{"Text":"..."}, ...]} in UTF-8. The generator uses the recycled
+   * buffers of the factory, so the only allocation which grows with the texts is the returned
+   * array.
+   *
+   * @param factory The factory which creates the generator.
+   * @param texts The texts, in order.
+   * @return The encoded body.
+   */
+  static byte[] writeTexts(JsonFactory factory, Collection<String> texts) {
+    ByteArrayBuilder output = new ByteArrayBuilder(estimateSize(texts));
+    try (JsonGenerator generator = factory.createGenerator(output)) {
+      generator.writeStartArray();
+      for (String text : texts) {
+        generator.writeStartObject();
+        generator.writeStringField("Text", text);
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+    } catch (IOException e) {
+      // The output is in memory, so this should never happen
+      throw new UncheckedIOException(e);
+    }
+
+    byte[] body = output.toByteArray();
+    output.release();
+    return body;
+  }
+
+  /**
+   * Estimates the size of the encoded body, assuming mostly single-byte characters.
+   *
+   * @param texts The texts.
+   * @return The estimated size in bytes.
+   */
+  private static int estimateSize(Collection<String> texts) {
+    long size = 2;
+    for (String text : texts) {
+      size += 12 + (text == null ? 4 : text.length());
+    }
+    return (int) Math.min(size, Integer.MAX_VALUE - 8);
+  }
+}
@@ -0,0 +1,86 @@
+package io.github.brenoepics.at4j.data.request;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.github.brenoepics.at4j.util.logging.LoggerUtil;
+import io.github.brenoepics.at4j.util.rest.RestRequestResult;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+
+/**
+ * This class streams the json array which Azure returns for requests with multiple texts, without
+ * decoding the body to a string or building a json tree.
+ */
+class ResponseReader {
+
+  /** The (logger) of this class. */
+  private static final Logger logger = LoggerUtil.getLogger(ResponseReader.class);
+
+  /** Private constructor to prevent instantiation of this utility class. */
+  private ResponseReader() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Reads the json array of the given response. The n-th element of the array belongs to the n-th
+   * text of the request.
+   *
+   * @param response The response.
+   * @param texts The texts of the request, in order.
+   * @param elementReader Reads an element of the array, which is a json object.
+   * @param <R> The type of the elements.
+   * @return The elements which could be read, or an empty optional if the body is not a json array,
+   *     is empty or is not valid json.
+   */
+  static <R> Optional<List<R>> readArray(
+      RestRequestResult response, Collection<String> texts, ElementReader<R> elementReader) {
+    try (JsonParser parser = response.createJsonParser()) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) return Optional.empty();
+
+      JsonToken token = parser.nextToken();
+      if (token == JsonToken.END_ARRAY) return Optional.empty();
+
+      List<R> elements = new ArrayList<>();
+      Iterator<String> baseTexts = texts.iterator();
+      while (token != null && token != JsonToken.END_ARRAY && baseTexts.hasNext()) {
+        String baseText = baseTexts.next();
+        if (token == JsonToken.START_OBJECT) {
+          R element = elementReader.read(baseText, parser);
+          if (element != null) elements.add(element);
+        } else {
+          parser.skipChildren();
+        }
+        token = parser.nextToken();
+      }
+      return Optional.of(elements);
+    } catch (IOException e) {
+      // This can happen if Azure sends garbage
+      logger.debug("Failed to read json response", e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Reads a json object from a parser which points at its start, up to and including its end.
+   *
+   * @param <R> The type of the read object.
+   */
+  @FunctionalInterface
+  interface ElementReader<R> {
+
+    /**
+     * Reads the object.
+     *
+     * @param baseText The text the object belongs to.
+     * @param parser The parser.
+     * @return The read object, or null if the json object is incomplete.
+     * @throws IOException If the json could not be read.
+     */
+    R read(String baseText, JsonParser parser) throws IOException;
+  }
+}
@@ -0,0 +1,48 @@
+package io.github.brenoepics.at4j.data.request;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/** This class splits texts into chunks which respect the limits of a single Azure request. */
+class TextPartitioner {
+
+  /** Private constructor to prevent instantiation of this utility class. */
+  private TextPartitioner() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Splits the given texts into consecutive chunks. Each chunk has at most {@code maxElements}
+   * texts and at most {@code maxCharacters} characters, unless a single text alone exceeds the
+   * character limit, in which case it gets a chunk of its own.
+   *
+   * @param texts The texts to split, in order.
+   * @param maxElements The maximum amount of texts per chunk.
+   * @param maxCharacters The maximum amount of characters per chunk.
+   * @return The chunks, in the order of the given texts.
+   */
+  static List<List<String>> partition(
+      Collection<String> texts, int maxElements, int maxCharacters) {
+    List<List<String>> chunks = new ArrayList<>();
+    List<String> chunk = new ArrayList<>();
+    int characters = 0;
+
+    for (String text : texts) {
+      int length = text == null ? 0 : text.length();
+      if (!chunk.isEmpty()
+          && (chunk.size() >= maxElements || characters + length > maxCharacters)) {
+        chunks.add(chunk);
+        chunk = new ArrayList<>();
+        characters = 0;
+      }
+      chunk.add(text);
+      characters += length;
+    }
+
+    if (!chunk.isEmpty()) {
+      chunks.add(chunk);
+    }
+    return chunks;
+  }
+}
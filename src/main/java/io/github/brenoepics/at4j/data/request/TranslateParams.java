@@ -1,10 +1,14 @@
 package io.github.brenoepics.at4j.data.request;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.github.brenoepics.at4j.azure.lang.Language;
+import io.github.brenoepics.at4j.core.ratelimit.RequestPriority;
 import io.github.brenoepics.at4j.data.DetectedLanguage;
 import io.github.brenoepics.at4j.data.Translation;
 import io.github.brenoepics.at4j.data.request.optional.ProfanityAction;
@@ -14,6 +18,8 @@ import io.github.brenoepics.at4j.data.response.TranslationResponse;
 import io.github.brenoepics.at4j.data.TranslationResult;
 import io.github.brenoepics.at4j.util.rest.RestRequestResult;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -42,6 +48,10 @@ public class TranslateParams {
   private Collection<String> targetLanguages;
   // The suggested language if the source language can't be identified
   private String suggestedFromLanguage;
+  // The priority of the translation compared to other queued translations
+  private RequestPriority priority = RequestPriority.NORMAL;
+  // The time the translation may take, or null to use the default timeout
+  private Duration timeout;
 
   /**
    * Constructor that initializes the text to be translated.
@@ -79,6 +89,60 @@ public class TranslateParams {
     return this;
   }
 
+  /**
+   * Creates a copy of these parameters which translates the given texts instead, keeping all other
+   * options.
+   *
+   * @param texts The texts to be translated by the copy.
+   * @return The copy.
+   */
+  public TranslateParams withTexts(Collection<String> texts) {
+    TranslateParams copy = new TranslateParams(texts, targetLanguages);
+    copy.textType = textType;
+    copy.profanityAction = profanityAction;
+    copy.profanityMarker = profanityMarker;
+    copy.includeAlignment = includeAlignment;
+    copy.includeSentenceLength = includeSentenceLength;
+    copy.sourceLanguage = sourceLanguage;
+    copy.suggestedFromLanguage = suggestedFromLanguage;
+    copy.priority = priority;
+    copy.timeout = timeout;
+    return copy;
+  }
+
+  /**
+   * Splits these parameters into consecutive copies which respect the given limits. The texts keep
+   * their order, so the results of the copies can be concatenated in order.
+   *
+   * @param maxElements The maximum amount of texts per copy.
+   * @param maxCharacters The maximum amount of characters per copy. A single text which exceeds it
+   *     is put into a copy of its own.
+   * @return This instance if it already respects the limits, the copies otherwise.
+   */
+  public List<TranslateParams> split(int maxElements, int maxCharacters) {
+    List<List<String>> chunks =
+        TextPartitioner.partition(getTexts().values(), maxElements, maxCharacters);
+    if (chunks.size() <= 1) {
+      return List.of(this);
+    }
+    return chunks.stream().map(this::withTexts).collect(Collectors.toList());
+  }
+
+  /**
+   * Gets the amount of characters which a translation of these parameters counts against the
+   * character limits. Azure counts every text once per target language.
+   *
+   * @return The amount of characters.
+   */
+  public long getCharacterCount() {
+    long characters = 0;
+    for (String text : getTexts().values()) {
+      characters += text == null ? 0 : text.length();
+    }
+    int targets = getTargetLanguages() == null ? 1 : Math.max(1, getTargetLanguages().size());
+    return characters * targets;
+  }
+
   /**
    * Defines whether the text being translated is plain text or HTML text. Any HTML needs to be a
    * well-formed, complete element.
@@ -203,6 +267,38 @@ public class TranslateParams {
     return this;
   }
 
+  /**
+   * Sets the priority of the translation. Translations of a higher priority are sent sooner than
+   * queued translations of a lower priority, e.g. to keep chat messages fast during a backfill.
+   * The priority is not sent to Azure.
+   *
+   * @param priority The priority of the translation.
+   * @return This instance.
+   */
+  public TranslateParams setPriority(RequestPriority priority) {
+    this.priority = Objects.requireNonNull(priority);
+    return this;
+  }
+
+  /**
+   * Sets the time the translation may take, from queueing it until its response arrived. If it
+   * takes longer, it is aborted and fails with a {@link java.util.concurrent.TimeoutException}, so
+   * it doesn't use up characters and connections nobody waits for anymore. A translation which is
+   * split into several requests applies the timeout to each of them.
+   *
+   * @param timeout The timeout, or {@code null} to use the default timeout of the api.
+   * @return This instance.
+   * @throws IllegalArgumentException If the timeout is not positive.
+   * @see io.github.brenoepics.at4j.AzureApiBuilder#requestTimeout(Duration)
+   */
+  public TranslateParams setTimeout(Duration timeout) {
+    if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+      throw new IllegalArgumentException("The timeout must be positive");
+    }
+    this.timeout = timeout;
+    return this;
+  }
+
   /**
    * Returns the text to be translated.
    *
@@ -284,6 +380,24 @@ public class TranslateParams {
     return suggestedFromLanguage;
   }
 
+  /**
+   * Returns the time the translation may take.
+   *
+   * @return The timeout, or {@code null} if the default timeout of the api is used.
+   */
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * Returns the priority of the translation.
+   *
+   * @return The priority of the translation, {@link RequestPriority#NORMAL} by default.
+   */
+  public RequestPriority getPriority() {
+    return priority;
+  }
+
   /**
    * Returns the parameters as a map.
    *
@@ -336,6 +450,17 @@ public class TranslateParams {
     return body;
   }
 
+  /**
+   * Encodes the body of the request as UTF-8 json, without building a json tree or a string first.
+   *
+   * @param factory The json factory which creates the generator.
+   * @return The body of the request.
+   * @see #getBody()
+   */
+  public byte[] getBodyBytes(JsonFactory factory) {
+    return RequestBodyWriter.writeTexts(factory, getTexts().values());
+  }
+
   /**
    * Handles the response from the API. If the response is null, or the JSON body is null, or the
    * JSON body does not contain a field 'translations', it returns an empty Optional. Otherwise, it
@@ -362,6 +487,60 @@ public class TranslateParams {
     return Optional.of(responses);
   }
 
+  /**
+   * Handles the response from the API by streaming its json body straight into the result
+   * objects. Unlike {@link #handleResponse(RestRequestResult)}, the body is neither decoded to a
+   * string nor parsed to a json tree first.
+   *
+   * @param response The response from the API.
+   * @return An Optional containing the TranslationResponse object, or an empty Optional if the
+   *     response has no body, or the body is not a json array, or the array is empty.
+   */
+  public Optional<TranslationResponse> parseResponse(RestRequestResult response) {
+    return ResponseReader.readArray(
+            response, getTexts().values(), TranslateParams::readTranslationResult)
+        .map(TranslationResponse::new);
+  }
+
+  /**
+   * Reads a TranslationResult object from a JSON parser which points at the start of the object.
+   *
+   * @param baseText The translated text.
+   * @param parser The JSON parser.
+   * @return The TranslationResult object, or null if the object has no translations.
+   * @throws IOException If the JSON could not be read.
+   */
+  private static TranslationResult readTranslationResult(String baseText, JsonParser parser)
+      throws IOException {
+    DetectedLanguage detectedLanguage = null;
+    Collection<Translation> translations = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken value = parser.nextToken();
+      if ("translations".equals(field) && value == JsonToken.START_ARRAY) {
+        translations = new ArrayList<>();
+        for (JsonToken token = parser.nextToken();
+            token != null && token != JsonToken.END_ARRAY;
+            token = parser.nextToken()) {
+          if (token == JsonToken.START_OBJECT) {
+            Translation translation = Translation.ofJSON(parser);
+            if (translation != null) translations.add(translation);
+          } else {
+            parser.skipChildren();
+          }
+        }
+      } else if ("detectedLanguage".equals(field) && value == JsonToken.START_OBJECT) {
+        detectedLanguage = DetectedLanguage.ofJSON(baseText, parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    if (translations == null) return null;
+
+    return new TranslationResult(baseText, detectedLanguage, translations);
+  }
+
   /**
    * Creates a TranslationResult object from a JSON node.
    *
@@ -0,0 +1,78 @@
+package io.github.brenoepics.at4j.util.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/** This class compresses request bodies and decompresses response bodies with gzip. */
+class GzipCodec {
+
+  /** The name of the gzip content coding. */
+  static final String GZIP = "gzip";
+
+  /** The header which names the content coding of a body. */
+  static final String CONTENT_ENCODING = "Content-Encoding";
+
+  /** Private constructor to prevent instantiation of this utility class. */
+  private GzipCodec() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Creates a body handler which reads the body as bytes and decompresses it once it was received,
+   * if the response is gzip-encoded.
+   *
+   * @return The body handler.
+   */
+  static HttpResponse.BodyHandler<byte[]> decompressingBodyHandler() {
+    return responseInfo -> {
+      boolean compressed =
+          responseInfo
+              .headers()
+              .firstValue(CONTENT_ENCODING)
+              .filter(GZIP::equalsIgnoreCase)
+              .isPresent();
+      if (!compressed) {
+        return HttpResponse.BodySubscribers.ofByteArray();
+      }
+      return HttpResponse.BodySubscribers.mapping(
+          HttpResponse.BodySubscribers.ofByteArray(), GzipCodec::decompress);
+    };
+  }
+
+  /**
+   * Compresses the given bytes.
+   *
+   * @param bytes The bytes to compress.
+   * @return The gzip-compressed bytes.
+   */
+  static byte[] compress(byte[] bytes) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 32);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    } catch (IOException e) {
+      // Can't happen, as we write to memory
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decompresses the given bytes.
+   *
+   * @param bytes The gzip-compressed bytes.
+   * @return The decompressed bytes.
+   * @throws UncheckedIOException If the bytes are not valid gzip data.
+   */
+  static byte[] decompress(byte[] bytes) {
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      return gzip.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to decompress the response body", e);
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package io.github.brenoepics.at4j.util.rest;
+
+/**
+ * This enum describes how the origin of a {@link RestRequest} is captured. The origin is the cause
+ * of every {@link io.github.brenoepics.at4j.core.exceptions.AzureException}, so it tells where the
+ * failed request was created. Capturing it is not free, though, as it happens for every request.
+ *
+ * <ul>
+ *   <li>FULL: The complete stack trace is captured. This is the default.
+ *   <li>LIMITED: Only the innermost {@link RestRequest#LIMITED_ORIGIN_FRAMES} frames are captured,
+ *       which is considerably cheaper for deep call stacks.
+ *   <li>NONE: The origin is not captured, and exceptions have no origin as their cause.
+ * </ul>
+ */
+public enum OriginCaptureMode {
+  FULL, // The complete stack trace is captured.
+  LIMITED, // Only the innermost frames are captured.
+  NONE // The origin is not captured.
+}
@@ -87,6 +87,27 @@ public enum RestEndpoint {
     return new URI("https", baseURL.getUrl(), endpointUrl, query, null);
   }
 
+  /**
+   * Gets the full {@link URI http url} of the endpoint on the given base URI, e.g. a gateway or a
+   * local mock server. The path of the base URI is kept as a prefix of the endpoint url.
+   *
+   * @param baseURI The base URI, consisting of a scheme, a host, optionally a port and optionally a
+   *     path prefix.
+   * @param queryParams The query parameters of the request.
+   * @return The full http url of the endpoint.
+   * @throws URISyntaxException If the resulting URI is invalid.
+   */
+  public URI getHttpUrl(URI baseURI, Map<String, Collection<String>> queryParams)
+      throws URISyntaxException {
+    String query = getQuery(queryParams);
+    String prefix = baseURI.getPath() == null ? "" : baseURI.getPath();
+    if (prefix.endsWith("/")) {
+      prefix = prefix.substring(0, prefix.length() - 1);
+    }
+
+    return new URI(baseURI.getScheme(), baseURI.getAuthority(), prefix + endpointUrl, query, null);
+  }
+
   private String getQuery(Map<String, Collection<String>> queryParams) {
     return queryParams.entrySet().stream()
         .map(
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import io.github.brenoepics.at4j.AT4J;
 import io.github.brenoepics.at4j.AzureApi;
 import io.github.brenoepics.at4j.core.exceptions.AzureException;
+import io.github.brenoepics.at4j.core.ratelimit.RequestPriority;
 import io.github.brenoepics.at4j.util.logging.LoggerUtil;
 import org.slf4j.Logger;
 
@@ -13,8 +14,15 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 
 /** This class is used to wrap a rest request. */
@@ -30,7 +38,17 @@ public class RestRequest {
   private volatile boolean includeAuthorizationHeader = true;
   private final Map<String, Collection<String>> queryParameters = new HashMap<>();
   private final Map<String, String> headers = new HashMap<>();
-  private volatile String body = null;
+  private volatile byte[] body = null;
+  private volatile long characterCost = 0;
+  private volatile RequestPriority priority = RequestPriority.NORMAL;
+  private volatile int retries = 0;
+  private volatile Duration timeout = null;
+
+  /** When the request times out, in nanoseconds, or 0 if it doesn't. */
+  private volatile long deadline = 0;
+
+  /** The exchange of the last attempt, which is aborted if the request is cancelled. */
+  private volatile CompletableFuture<?> exchange = null;
 
   private final CompletableFuture<RestRequestResult> result = new CompletableFuture<>();
 
@@ -39,6 +57,9 @@ public class RestRequest {
 
   public static final String ERROR_FIELD = "error";
 
+  /** The amount of frames which are captured in {@link OriginCaptureMode#LIMITED} mode. */
+  public static final int LIMITED_ORIGIN_FRAMES = 16;
+
   /**
    * Creates a new instance of this class.
    *
@@ -52,7 +73,7 @@ public class RestRequest {
     this.endpoint = endpoint;
     addQueryParameter("api-version", AT4J.AZURE_TRANSLATOR_API_VERSION);
 
-    this.origin = new Exception("origin of RestRequest call");
+    this.origin = captureOrigin(api);
   }
 
   /**
@@ -71,7 +92,7 @@ public class RestRequest {
     addQueryParameter("api-version", AT4J.AZURE_TRANSLATOR_API_VERSION);
     this.includeAuthorizationHeader = includeAuthorizationHeader;
 
-    this.origin = new Exception("origin of RestRequest call");
+    this.origin = captureOrigin(api);
   }
 
   /**
@@ -116,13 +137,15 @@ public class RestRequest {
    * @return The body of this request.
    */
   public Optional<String> getBody() {
-    return Optional.ofNullable(body);
+    return Optional.ofNullable(body).map(bytes -> new String(bytes, StandardCharsets.UTF_8));
   }
 
   /**
-   * Gets the origin of the rest request.
+   * Gets the origin of the rest request. May be <code>null</code> if the api does not capture
+   * origins.
    *
    * @return The origin of the rest request.
+   * @see OriginCaptureMode
    */
   public Exception getOrigin() {
     return origin;
@@ -161,6 +184,123 @@ public class RestRequest {
     return headers;
   }
 
+  /**
+   * Sets the amount of characters which this request counts against the character limits of the
+   * subscription.
+   *
+   * @param characterCost The amount of characters.
+   * @return The current instance to chain call methods.
+   */
+  public RestRequest setCharacterCost(long characterCost) {
+    this.characterCost = characterCost;
+    return this;
+  }
+
+  /**
+   * Gets the amount of characters which this request counts against the character limits of the
+   * subscription.
+   *
+   * @return The amount of characters, or 0 if the request doesn't count against them.
+   */
+  public long getCharacterCost() {
+    return characterCost;
+  }
+
+  /**
+   * Sets the priority of this request, which decides how soon it is sent compared to the other
+   * queued requests of its endpoint.
+   *
+   * @param priority The priority.
+   * @return The current instance to chain call methods.
+   */
+  public RestRequest setPriority(RequestPriority priority) {
+    this.priority = Objects.requireNonNull(priority);
+    return this;
+  }
+
+  /**
+   * Gets the priority of this request.
+   *
+   * @return The priority, {@link RequestPriority#NORMAL} by default.
+   */
+  public RequestPriority getPriority() {
+    return priority;
+  }
+
+  /**
+   * Sets how often this request was retried after a transient failure.
+   *
+   * @param retries The amount of retries.
+   * @return The current instance to chain call methods.
+   */
+  public RestRequest setRetries(int retries) {
+    this.retries = retries;
+    return this;
+  }
+
+  /**
+   * Gets how often this request was retried after a transient failure.
+   *
+   * @return The amount of retries.
+   */
+  public int getRetries() {
+    return retries;
+  }
+
+  /**
+   * Sets the time this request may take, from queueing it until its response arrived. This
+   * overrides the {@link AzureApi#getRequestTimeout() default timeout} of the api.
+   *
+   * @param timeout The timeout, or {@code null} to use the default timeout.
+   * @return The current instance to chain call methods.
+   * @throws IllegalArgumentException If the timeout is not positive.
+   */
+  public RestRequest setTimeout(Duration timeout) {
+    if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+      throw new IllegalArgumentException("The timeout must be positive");
+    }
+    this.timeout = timeout;
+    return this;
+  }
+
+  /**
+   * Gets the time this request may take, from queueing it until its response arrived.
+   *
+   * @return The timeout or an empty optional if the default timeout of the api is used.
+   */
+  public Optional<Duration> getTimeout() {
+    return Optional.ofNullable(timeout);
+  }
+
+  /**
+   * Gets the moment at which this request times out.
+   *
+   * @return The deadline as {@link System#nanoTime()}, or 0 if the request doesn't time out.
+   */
+  public long getDeadline() {
+    return deadline;
+  }
+
+  /**
+   * Aborts this request. A queued request is removed from its queue and an in-flight request is
+   * cancelled, so it doesn't occupy a connection anymore. Cancelling the exchange of the {@link
+   * java.net.http.HttpClient} requires Java 16 or later, on older versions only the result fails
+   * and the exchange runs until the response arrived. Does nothing if the request is done already.
+   *
+   * @param cause Why the request is aborted, which completes its result exceptionally.
+   */
+  public void abort(Throwable cause) {
+    if (!result.completeExceptionally(cause)) {
+      return;
+    }
+
+    CompletableFuture<?> currentExchange = exchange;
+    if (currentExchange != null) {
+      currentExchange.cancel(true);
+    }
+    api.getRatelimitManager().removeRequest(this);
+  }
+
   /**
    * Sets the body of the request.
    *
@@ -178,6 +318,17 @@ public class RestRequest {
    * @return The current instance to chain call methods.
    */
   public RestRequest setBody(String body) {
+    return setBody(body == null ? null : body.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Sets the body of the request. The array is sent as it is, so it must not be modified
+   * afterward.
+   *
+   * @param body The UTF-8 encoded body of the request.
+   * @return The current instance to chain call methods.
+   */
+  public RestRequest setBody(byte[] body) {
     this.body = body;
     return this;
   }
@@ -207,8 +358,31 @@ public class RestRequest {
    * @return A future which will contain the output of the function.
    */
   public <T> CompletableFuture<T> execute(Function<RestRequestResult, T> function) {
+    Duration callTimeout = timeout != null ? timeout : api.getRequestTimeout().orElse(null);
+    if (callTimeout != null) {
+      deadline = System.nanoTime() + callTimeout.toNanos();
+      Runnable timeOut =
+          () -> abort(new TimeoutException("The request timed out after " + callTimeout));
+      // Aborting completes the futures of the caller, so it must not run on the scheduler
+      ScheduledFuture<?> timer =
+          api.getThreadPool()
+              .getScheduler()
+              .schedule(
+                  () -> api.getThreadPool().getExecutorService().submit(timeOut),
+                  callTimeout.toNanos(),
+                  TimeUnit.NANOSECONDS);
+      result.whenComplete((requestResult, throwable) -> timer.cancel(false));
+    }
+
     api.getRatelimitManager().queueRequest(this);
     CompletableFuture<T> future = new CompletableFuture<>();
+    // Nobody waits for the result anymore, e.g. because the future was cancelled
+    future.whenComplete(
+        (value, throwable) -> {
+          if (!result.isDone()) {
+            abort(throwable != null ? throwable : new CancellationException());
+          }
+        });
     result.whenComplete(
         (requestResult, throwable) -> {
           if (throwable != null) {
@@ -244,10 +418,10 @@ public class RestRequest {
 
       return new RestRequestInfoImpl(
           api,
-          endpoint.getHttpUrl(api.getBaseURL(), queryParameters).toURL(),
+          endpoint.getHttpUrl(api.getBaseURI(), queryParameters).toURL(),
           queryParameters,
           headers,
-          body);
+          getBody().orElse(null));
     } catch (URISyntaxException | MalformedURLException e) {
       throw new AssertionError(e);
     }
@@ -262,10 +436,69 @@ public class RestRequest {
    */
   public RestRequestResult executeBlocking()
       throws AzureException, IOException, URISyntaxException {
-    URI fullUrl = endpoint.getHttpUrl(api.getBaseURL(), queryParameters);
+    URI fullUrl = endpoint.getHttpUrl(api.getBaseURI(), queryParameters);
+    HttpRequest httpRequest = buildHttpRequest(fullUrl);
+
+    CompletableFuture<HttpResponse<byte[]>> response =
+        getApi().getHttpClient().sendAsync(httpRequest, GzipCodec.decompressingBodyHandler());
+    RestRequestResult responseResult = handleResponse(fullUrl, response.join());
+    result.complete(responseResult);
+    return responseResult;
+  }
+
+  /**
+   * Executes the request without blocking the calling thread while waiting for Azure.
+   *
+   * <p>Unlike {@link #executeBlocking()}, this method does not complete {@link #getResult()}. The
+   * caller (usually the {@link io.github.brenoepics.at4j.core.ratelimit.RateLimitManager}) decides
+   * whether the attempt finishes the request or has to be retried, e.g. after a rate-limit.
+   *
+   * @return A future which completes with the result of this attempt, or exceptionally with an
+   *     {@link AzureException} or {@link IOException} if the request failed.
+   */
+  public CompletableFuture<RestRequestResult> executeAsync() {
+    URI fullUrl;
+    try {
+      fullUrl = endpoint.getHttpUrl(api.getBaseURI(), queryParameters);
+    } catch (URISyntaxException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    CompletableFuture<HttpResponse<byte[]>> send =
+        getApi()
+            .getHttpClient()
+            .sendAsync(buildHttpRequest(fullUrl), GzipCodec.decompressingBodyHandler());
+    exchange = send;
+    // The request was aborted while it was being sent
+    if (result.isDone()) {
+      send.cancel(true);
+    }
+
+    return send.thenApply(
+        response -> {
+          try {
+            return handleResponse(fullUrl, response);
+          } catch (IOException | AzureException e) {
+            throw new CompletionException(e);
+          }
+        });
+  }
+
+  /**
+   * Builds the http request which is sent to the given url.
+   *
+   * @param fullUrl The full url of the request, including query parameters.
+   * @return The http request.
+   */
+  private HttpRequest buildHttpRequest(URI fullUrl) {
     HttpRequest.Builder requestBuilder = HttpRequest.newBuilder().uri(fullUrl);
     request(requestBuilder);
 
+    long currentDeadline = deadline;
+    if (currentDeadline != 0) {
+      requestBuilder.timeout(Duration.ofNanos(Math.max(1, currentDeadline - System.nanoTime())));
+    }
+
     if (includeAuthorizationHeader) {
       requestBuilder.setHeader("Ocp-Apim-Subscription-Key", api.getSubscriptionKey());
       api.getSubscriptionRegion()
@@ -274,31 +507,28 @@ public class RestRequest {
 
     headers.forEach(requestBuilder::setHeader);
 
-    logger.debug(
-        "Trying to send {} request to {}{}",
-        method.name(),
-        requestBuilder,
-        body != null ? " with body " + body : "");
+    if (logger.isDebugEnabled()) {
+      logger.debug(
+          "Trying to send {} request to {}{}",
+          method.name(),
+          requestBuilder,
+          getBody().map(string -> " with body " + string).orElse(""));
+    }
 
-    CompletableFuture<HttpResponse<String>> response =
-        getApi()
-            .getHttpClient()
-            .sendAsync(requestBuilder.build(), HttpResponse.BodyHandlers.ofString());
-    RestRequestResult responseResult = handleResponse(fullUrl, response.join());
-    result.complete(responseResult);
-    return responseResult;
+    return requestBuilder.build();
   }
 
-  private RestRequestResult handleResponse(URI fullUrl, HttpResponse<String> response)
+  private RestRequestResult handleResponse(URI fullUrl, HttpResponse<byte[]> response)
       throws IOException, AzureException {
-    RestRequestResult requestResult = new RestRequestResult(this, response);
-    String bodyString = requestResult.getStringBody().orElse("empty");
-    logger.debug(
-        "Sent {} request to {} and received status code {} with body {}",
-        method.name(),
-        fullUrl.toURL(),
-        response.statusCode(),
-        bodyString);
+    RestRequestResult requestResult = new RestRequestResult(this, response, response.body());
+    if (logger.isDebugEnabled()) {
+      logger.debug(
+          "Sent {} request to {} and received status code {} with body {}",
+          method.name(),
+          fullUrl.toURL(),
+          response.statusCode(),
+          requestResult.getStringBody().orElse("empty"));
+    }
 
     if (response.statusCode() >= 300 || response.statusCode() < 200) {
       return handleError(response.statusCode(), requestResult);
@@ -380,14 +610,79 @@ public class RestRequest {
                     responseInformation));
   }
 
+  /**
+   * Captures the origin of a rest request, as configured for the given api.
+   *
+   * @param api The api which will be used to execute the request.
+   * @return The origin, or null if origins are not captured.
+   */
+  private static Exception captureOrigin(AzureApi api) {
+    OriginCaptureMode mode = api == null ? null : api.getOriginCaptureMode();
+    if (mode == OriginCaptureMode.NONE) {
+      return null;
+    }
+
+    if (mode != OriginCaptureMode.LIMITED) {
+      return new Exception("origin of RestRequest call");
+    }
+
+    // Skip this method and the constructor
+    Exception origin = new LimitedOrigin();
+    origin.setStackTrace(
+        StackWalker.getInstance()
+            .walk(
+                frames ->
+                    frames
+                        .skip(2)
+                        .limit(LIMITED_ORIGIN_FRAMES)
+                        .map(StackWalker.StackFrame::toStackTraceElement)
+                        .toArray(StackTraceElement[]::new)));
+    return origin;
+  }
+
   private void request(HttpRequest.Builder requestBuilder) {
     requestBuilder.setHeader("User-Agent", AT4J.USER_AGENT);
     requestBuilder.setHeader("Accept", "application/json");
+    requestBuilder.setHeader("Accept-Encoding", GzipCodec.GZIP);
     requestBuilder.setHeader("Content-Type", "application/json");
-    HttpRequest.BodyPublisher bodyPublisher =
-        body == null
-            ? HttpRequest.BodyPublishers.noBody()
-            : HttpRequest.BodyPublishers.ofString(body);
+    HttpRequest.BodyPublisher bodyPublisher;
+    if (body == null) {
+      bodyPublisher = HttpRequest.BodyPublishers.noBody();
+    } else if (shouldCompressBody()) {
+      requestBuilder.setHeader(GzipCodec.CONTENT_ENCODING, GzipCodec.GZIP);
+      bodyPublisher = HttpRequest.BodyPublishers.ofByteArray(GzipCodec.compress(body));
+    } else {
+      bodyPublisher = HttpRequest.BodyPublishers.ofByteArray(body);
+    }
     requestBuilder.method(method.name(), bodyPublisher);
   }
+
+  /**
+   * Checks if the body is large enough to be sent gzip-compressed.
+   *
+   * @return Whether the body should be compressed.
+   * @see AzureApi#getRequestCompressionThreshold()
+   */
+  private boolean shouldCompressBody() {
+    if (api == null) {
+      return false;
+    }
+    int threshold = api.getRequestCompressionThreshold();
+    return threshold > 0 && body.length >= threshold;
+  }
+
+  /** The origin of a rest request whose stack trace is captured with a {@link StackWalker}. */
+  private static final class LimitedOrigin extends Exception {
+    private static final long serialVersionUID = 4417036316526317842L;
+
+    private LimitedOrigin() {
+      super("origin of RestRequest call");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      // The stack trace is set from the frames of the stack walker instead
+      return this;
+    }
+  }
 }
@@ -3,7 +3,11 @@ package io.github.brenoepics.at4j.util.rest;
 /**
  * This class is responsible for handling REST requests. It stores the result of a REST request, the
  * current request being processed, and the timestamp of the response.
+ *
+ * @deprecated Requests are sent asynchronously, so the rate-limit manager doesn't use this class
+ *     anymore. Use {@link RestRequest#getResult()} instead.
  */
+@Deprecated(since = "1.2.0", forRemoval = true)
 public class RestRequestHandler {
   // The result of the REST request
   private final RestRequestResult result;
@@ -1,6 +1,7 @@
 package io.github.brenoepics.at4j.util.rest;
 
 import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.NullNode;
@@ -9,18 +10,28 @@ import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
-/** The result of a {@link RestRequest}. */
+/**
+ * The result of a {@link RestRequest}.
+ *
+ * <p>The body is kept as it was received. It is only decoded to a string or parsed to a json tree
+ * when {@link #getStringBody()} or {@link #getJsonBody()} is called, so callers which read the body
+ * with {@link #createJsonParser()} do not pay for either.
+ */
 public class RestRequestResult {
 
   /** The (logger) of this class. */
   private static final Logger logger = LoggerUtil.getLogger(RestRequestResult.class);
 
+  private static final byte[] EMPTY_BODY = new byte[0];
+
   private final RestRequest request;
-  private final HttpResponse<String> response;
-  private final String stringBody;
-  private final JsonNode jsonBody;
+  private final HttpResponse<?> response;
+  private final byte[] body;
+  private volatile String stringBody;
+  private volatile JsonNode jsonBody;
 
   /**
    * Creates a new RestRequestResult.
@@ -33,21 +44,20 @@ public class RestRequestResult {
     this.request = request;
     this.response = response;
     this.stringBody = response.body();
-    if (stringBody == null) {
-      jsonBody = NullNode.getInstance();
-      return;
-    }
+    this.body = stringBody == null ? null : stringBody.getBytes(StandardCharsets.UTF_8);
+  }
 
-    ObjectMapper mapper = request.getApi().getObjectMapper();
-    JsonNode jsonNode;
-    try {
-      jsonNode = mapper.readTree(stringBody);
-    } catch (JsonParseException e) {
-      // This can happen if Azure sends garbage
-      logger.debug("Failed to parse json response", e);
-      jsonNode = null;
-    }
-    this.jsonBody = jsonNode == null ? NullNode.getInstance() : jsonNode;
+  /**
+   * Creates a new RestRequestResult from a response whose body was received as bytes.
+   *
+   * @param request The request of the result.
+   * @param response The response of the RestRequest.
+   * @param body The body of the response, or null if it had none.
+   */
+  public RestRequestResult(RestRequest request, HttpResponse<?> response, byte[] body) {
+    this.request = request;
+    this.response = response;
+    this.body = body;
   }
 
   /**
@@ -64,7 +74,7 @@ public class RestRequestResult {
    *
    * @return The response of the RestRequest.
    */
-  public HttpResponse<String> getResponse() {
+  public HttpResponse<?> getResponse() {
     return response;
   }
 
@@ -74,6 +84,9 @@ public class RestRequestResult {
    * @return The string body of the response.
    */
   public Optional<String> getStringBody() {
+    if (stringBody == null && body != null) {
+      stringBody = new String(body, StandardCharsets.UTF_8);
+    }
     return Optional.ofNullable(stringBody);
   }
 
@@ -84,6 +97,53 @@ public class RestRequestResult {
    * @return The json body of the response.
    */
   public JsonNode getJsonBody() {
+    if (jsonBody == null) {
+      jsonBody = parseJsonBody();
+    }
     return jsonBody;
   }
+
+  /**
+   * Creates a parser which streams the json body of the response, without building a json tree. The
+   * parser has no tokens if the response had none body.
+   *
+   * @return The parser. It must be closed by the caller.
+   * @throws IOException If the parser could not be created.
+   */
+  public JsonParser createJsonParser() throws IOException {
+    return getObjectMapper().getFactory().createParser(body == null ? EMPTY_BODY : body);
+  }
+
+  /**
+   * Parses the body of the response to a json tree.
+   *
+   * @return The json tree, or a {@link NullNode} if there is none body or it is not valid json.
+   */
+  private JsonNode parseJsonBody() {
+    if (body == null) {
+      return NullNode.getInstance();
+    }
+
+    JsonNode jsonNode;
+    try {
+      jsonNode = getObjectMapper().readTree(body);
+    } catch (JsonParseException e) {
+      // This can happen if Azure sends garbage
+      logger.debug("Failed to parse json response", e);
+      jsonNode = null;
+    } catch (IOException e) {
+      logger.debug("Failed to read json response", e);
+      jsonNode = null;
+    }
+    return jsonNode == null ? NullNode.getInstance() : jsonNode;
+  }
+
+  /**
+   * Gets the object mapper of the api which sent the request.
+   *
+   * @return The object mapper.
+   */
+  private ObjectMapper getObjectMapper() {
+    return request.getApi().getObjectMapper();
+  }
 }
@@ -1,14 +1,21 @@
 package io.github.brenoepics.at4j;
 
 import io.github.brenoepics.at4j.azure.lang.Language;
+import io.github.brenoepics.at4j.core.ratelimit.CircuitBreaker;
+import io.github.brenoepics.at4j.core.ratelimit.CircuitBreakerState;
 import io.github.brenoepics.at4j.core.thread.ThreadPoolImpl;
 import io.github.brenoepics.at4j.data.request.AvailableLanguagesParams;
+import io.github.brenoepics.at4j.mock.MockTranslatorServer;
+import io.github.brenoepics.at4j.util.rest.OriginCaptureMode;
+import io.github.brenoepics.at4j.util.rest.RestEndpoint;
 import org.junit.jupiter.api.Test;
 import io.github.brenoepics.at4j.azure.BaseURL;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
+import java.io.IOException;
 import java.net.ProxySelector;
+import java.net.http.HttpClient;
 import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.util.Collection;
@@ -63,23 +70,125 @@ class AzureApiBuilderTest {
   }
 
   @Test
-  void shouldSetAllParameters() throws NoSuchAlgorithmException {
-    ProxySelector selector = ProxySelector.getDefault();
-    SSLContext sslContext = SSLContext.getDefault();
-    SSLParameters parameters = new SSLParameters();
+  void shouldSetMaxConcurrentRequestsWhenProvided() {
     AzureApi api =
         new AzureApiBuilder()
-            .setKey("test")
-            .region("test")
-            .baseURL(BaseURL.GLOBAL)
-            .connectTimeout(Duration.ofSeconds(60))
-            .proxy(selector)
-            .sslContext(sslContext)
-            .sslParameters(parameters)
+            .setKey("testKey")
+            .maxConcurrentRequests(RestEndpoint.TRANSLATE, 8)
             .build();
-    Optional<Collection<Language>> languages =
-        api.getAvailableLanguages(new AvailableLanguagesParams()).join();
-    assertTrue(languages.isPresent());
-    assertFalse(languages.get().isEmpty());
+    assertEquals(8, api.getRatelimitManager().getMaxConcurrentRequests(RestEndpoint.TRANSLATE));
+    assertEquals(1, api.getRatelimitManager().getMaxConcurrentRequests(RestEndpoint.DETECT));
+    api.disconnect();
+  }
+
+  @Test
+  void shouldThrowExceptionWhenMaxConcurrentRequestsIsLessThanOne() {
+    AzureApiBuilder builder = new AzureApiBuilder().setKey("testKey");
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> builder.maxConcurrentRequests(RestEndpoint.TRANSLATE, 0));
+  }
+
+  @Test
+  void shouldSetCircuitBreakerForEveryEndpoint() {
+    AzureApi api =
+        new AzureApiBuilder().setKey("testKey").circuitBreaker(5, Duration.ofSeconds(30)).build();
+    for (RestEndpoint endpoint : RestEndpoint.values()) {
+      CircuitBreaker circuitBreaker =
+          api.getRatelimitManager().getCircuitBreaker(endpoint).orElseThrow();
+      assertEquals(5, circuitBreaker.getFailureThreshold());
+      assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+    }
+    api.disconnect();
+  }
+
+  @Test
+  void shouldThrowExceptionWhenCircuitBreakerIsInvalid() {
+    AzureApiBuilder builder = new AzureApiBuilder().setKey("testKey");
+    assertThrows(
+        IllegalArgumentException.class, () -> builder.circuitBreaker(0, Duration.ofSeconds(1)));
+    assertThrows(IllegalArgumentException.class, () -> builder.circuitBreaker(1, Duration.ZERO));
+  }
+
+  @Test
+  void shouldSetRequestTimeout() {
+    AzureApi api = new AzureApiBuilder().setKey("testKey").build();
+    assertTrue(api.getRequestTimeout().isEmpty());
+    api.disconnect();
+
+    api = new AzureApiBuilder().setKey("testKey").requestTimeout(Duration.ofSeconds(5)).build();
+    assertEquals(Duration.ofSeconds(5), api.getRequestTimeout().orElseThrow());
+    api.disconnect();
+  }
+
+  @Test
+  void shouldThrowExceptionWhenRequestTimeoutIsNotPositive() {
+    AzureApiBuilder builder = new AzureApiBuilder().setKey("testKey");
+    assertThrows(IllegalArgumentException.class, () -> builder.requestTimeout(Duration.ZERO));
+    assertThrows(
+        IllegalArgumentException.class, () -> builder.requestTimeout(Duration.ofSeconds(-1)));
+  }
+
+  @Test
+  void shouldUseHttp11ByDefault() {
+    AzureApi api = new AzureApiBuilder().setKey("testKey").build();
+    try {
+      assertEquals(HttpClient.Version.HTTP_1_1, api.getHttpClient().version());
+    } finally {
+      api.disconnect();
+    }
+  }
+
+  @Test
+  void shouldSetHttpVersionWhenProvided() {
+    AzureApi api =
+        new AzureApiBuilder().setKey("testKey").httpVersion(HttpClient.Version.HTTP_2).build();
+    try {
+      assertEquals(HttpClient.Version.HTTP_2, api.getHttpClient().version());
+    } finally {
+      api.disconnect();
+    }
+  }
+
+  @Test
+  void shouldSetOriginCaptureMode() {
+    AzureApi defaultApi = new AzureApiBuilder().setKey("test").build();
+    AzureApi api =
+        new AzureApiBuilder().setKey("test").originCaptureMode(OriginCaptureMode.NONE).build();
+    try {
+      assertEquals(OriginCaptureMode.FULL, defaultApi.getOriginCaptureMode());
+      assertEquals(OriginCaptureMode.NONE, api.getOriginCaptureMode());
+    } finally {
+      defaultApi.disconnect();
+      api.disconnect();
+    }
+  }
+
+  @Test
+  void shouldSetAllParameters() throws NoSuchAlgorithmException, IOException {
+    ProxySelector selector = ProxySelector.getDefault();
+    SSLContext sslContext = SSLContext.getDefault();
+    SSLParameters parameters = new SSLParameters();
+    try (MockTranslatorServer server = new MockTranslatorServer().start()) {
+      AzureApi api =
+          new AzureApiBuilder()
+              .setKey("test")
+              .region("test")
+              .baseURL(BaseURL.GLOBAL)
+              .baseURI(server.getBaseURI())
+              .connectTimeout(Duration.ofSeconds(60))
+              .proxy(selector)
+              .sslContext(sslContext)
+              .sslParameters(parameters)
+              .build();
+      try {
+        Optional<Collection<Language>> languages =
+            api.getAvailableLanguages(new AvailableLanguagesParams()).join();
+        assertTrue(languages.isPresent());
+        assertFalse(languages.get().isEmpty());
+      } finally {
+        api.disconnect();
+      }
+    }
   }
 }
@@ -9,6 +9,8 @@ import io.github.brenoepics.at4j.data.request.DetectLanguageParams;
 import io.github.brenoepics.at4j.data.request.TranslateParams;
 import io.github.brenoepics.at4j.data.response.DetectResponse;
 import io.github.brenoepics.at4j.data.response.TranslationResponse;
+import io.github.brenoepics.at4j.mock.MockTranslatorServer;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -32,15 +34,17 @@ class AzureApiTest {
   }
 
   @Test
-  void getLanguages() {
-    AzureApi api =
-        new AzureApiBuilder().baseURL(BaseURL.GLOBAL).setKey("test").region("test").build();
-
-    CompletableFuture<Optional<Collection<Language>>> languages =
-        api.getAvailableLanguages(new AvailableLanguagesParams().setSourceLanguage("en"));
-    languages.whenComplete((s, throwable) -> assertNull(throwable));
-    assertNotNull(languages.join());
-    api.disconnect();
+  void getLanguages() throws IOException {
+    try (MockTranslatorServer server = new MockTranslatorServer().start()) {
+      AzureApi api =
+          new AzureApiBuilder().baseURI(server.getBaseURI()).setKey("test").region("test").build();
+
+      CompletableFuture<Optional<Collection<Language>>> languages =
+          api.getAvailableLanguages(new AvailableLanguagesParams().setSourceLanguage("en"));
+      languages.whenComplete((s, throwable) -> assertNull(throwable));
+      assertNotNull(languages.join());
+      api.disconnect();
+    }
   }
 
   @Test
@@ -2,7 +2,12 @@ package io.github.brenoepics.at4j.core;
 
 import io.github.brenoepics.at4j.AzureApi;
 import io.github.brenoepics.at4j.AzureApiBuilder;
+import io.github.brenoepics.at4j.core.cache.InMemoryTranslationCache;
+import io.github.brenoepics.at4j.core.cache.TranslationCache;
+import io.github.brenoepics.at4j.core.cache.TranslationCacheKey;
 import io.github.brenoepics.at4j.core.exceptions.AzureException;
+import io.github.brenoepics.at4j.data.Translation;
+import io.github.brenoepics.at4j.data.TranslationResult;
 import io.github.brenoepics.at4j.data.request.TranslateParams;
 import io.github.brenoepics.at4j.data.response.TranslationResponse;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -44,4 +50,21 @@ class AzureApiImplTest {
 
     assertFalse(response.join().isPresent());
   }
+
+  @Test
+  void servesCachedTranslationsWithoutRequest() {
+    TranslationCache cache = new InMemoryTranslationCache(1_000);
+    TranslationResult cached =
+        new TranslationResult("Hello", List.of(new Translation("pt", "Olá")));
+    cache.put(TranslationCacheKey.of(translateParams, "Hello"), cached);
+    AzureApi cachingApi = new AzureApiBuilder().setKey("testKey").translationCache(cache).build();
+
+    CompletableFuture<Optional<TranslationResponse>> response =
+        cachingApi.translate(translateParams);
+
+    assertTrue(response.isDone());
+    assertSame(cached, response.join().orElseThrow().getFirstResult());
+    assertSame(cache, cachingApi.getTranslationCache().orElseThrow());
+    assertFalse(azureApi.getTranslationCache().isPresent());
+  }
 }
@@ -0,0 +1,290 @@
+package io.github.brenoepics.at4j.core.batch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.github.brenoepics.at4j.AzureApi;
+import io.github.brenoepics.at4j.core.ratelimit.RequestPriority;
+import io.github.brenoepics.at4j.core.thread.ThreadPool;
+import io.github.brenoepics.at4j.data.Translation;
+import io.github.brenoepics.at4j.data.TranslationResult;
+import io.github.brenoepics.at4j.data.request.TranslateParams;
+import io.github.brenoepics.at4j.data.response.TranslationResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class BatchingAzureApiTest {
+  private AzureApi delegate;
+  private ScheduledExecutorService scheduler;
+
+  @BeforeEach
+  void setUp() {
+    delegate = mock(AzureApi.class);
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    ThreadPool threadPool = mock(ThreadPool.class);
+    when(delegate.getThreadPool()).thenReturn(threadPool);
+    when(threadPool.getScheduler()).thenReturn(scheduler);
+    when(delegate.translate(any()))
+        .thenAnswer(
+            invocation -> {
+              TranslateParams params = invocation.getArgument(0);
+              List<TranslationResult> results =
+                  params.getTexts().values().stream()
+                      .map(
+                          text ->
+                              new TranslationResult(
+                                  text, List.of(new Translation("pt", text + "!"))))
+                      .collect(Collectors.toList());
+              return CompletableFuture.completedFuture(
+                  Optional.of(new TranslationResponse(results)));
+            });
+  }
+
+  @AfterEach
+  void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  void shouldSendOneRequestWhenBatchIsFull() {
+    AzureApi api =
+        new BatchingAzureApi(
+            delegate, new BatchPolicy().setMaxElements(3).setLinger(Duration.ofMinutes(1)));
+
+    List<CompletableFuture<Optional<TranslationResponse>>> futures = new ArrayList<>();
+    for (String text : List.of("a", "b", "c")) {
+      futures.add(api.translate(new TranslateParams(text, List.of("pt"))));
+    }
+
+    ArgumentCaptor<TranslateParams> captor = ArgumentCaptor.forClass(TranslateParams.class);
+    verify(delegate, times(1)).translate(captor.capture());
+    assertEquals(List.of("a", "b", "c"), new ArrayList<>(captor.getValue().getTexts().values()));
+    assertEquals("a!", translationOf(futures.get(0)));
+    assertEquals("b!", translationOf(futures.get(1)));
+    assertEquals("c!", translationOf(futures.get(2)));
+  }
+
+  @Test
+  void shouldSendBatchWhenLingerPassed() throws Exception {
+    AzureApi api =
+        new BatchingAzureApi(delegate, new BatchPolicy().setLinger(Duration.ofMillis(10)));
+
+    CompletableFuture<Optional<TranslationResponse>> future =
+        api.translate(new TranslateParams("Hello", List.of("pt")));
+
+    Optional<TranslationResponse> response = future.get(5, TimeUnit.SECONDS);
+    assertTrue(response.isPresent());
+    assertEquals(1, response.get().getResultList().size());
+    verify(delegate, times(1)).translate(any());
+  }
+
+  @Test
+  void shouldNotMixCallsWithDifferentOptions() {
+    AzureApi api =
+        new BatchingAzureApi(
+            delegate, new BatchPolicy().setMaxElements(2).setLinger(Duration.ofMinutes(1)));
+
+    api.translate(new TranslateParams("a", List.of("pt")));
+    CompletableFuture<Optional<TranslationResponse>> spanish =
+        api.translate(new TranslateParams("b", List.of("es")));
+    api.translate(new TranslateParams("c", List.of("pt")));
+
+    ArgumentCaptor<TranslateParams> captor = ArgumentCaptor.forClass(TranslateParams.class);
+    verify(delegate, times(1)).translate(captor.capture());
+    assertEquals(List.of("a", "c"), new ArrayList<>(captor.getValue().getTexts().values()));
+    assertFalse(spanish.isDone());
+
+    api.disconnect();
+    assertEquals("b!", translationOf(spanish));
+    verify(delegate).disconnect();
+  }
+
+  @Test
+  void shouldNotMixCallsWithDifferentPriorities() {
+    AzureApi api =
+        new BatchingAzureApi(
+            delegate, new BatchPolicy().setMaxElements(2).setLinger(Duration.ofMinutes(1)));
+
+    api.translate(new TranslateParams("a", List.of("pt")).setPriority(RequestPriority.BULK));
+    api.translate(new TranslateParams("b", List.of("pt")));
+    api.translate(new TranslateParams("c", List.of("pt")).setPriority(RequestPriority.BULK));
+
+    ArgumentCaptor<TranslateParams> captor = ArgumentCaptor.forClass(TranslateParams.class);
+    verify(delegate, times(1)).translate(captor.capture());
+    assertEquals(List.of("a", "c"), new ArrayList<>(captor.getValue().getTexts().values()));
+    assertEquals(RequestPriority.BULK, captor.getValue().getPriority());
+    api.disconnect();
+  }
+
+  @Test
+  void shouldRemoveCancelledCallFromOpenBatch() {
+    AzureApi api =
+        new BatchingAzureApi(
+            delegate, new BatchPolicy().setMaxElements(2).setLinger(Duration.ofMinutes(1)));
+
+    api.translate(new TranslateParams("a", List.of("pt"))).cancel(true);
+    api.translate(new TranslateParams("b", List.of("pt")));
+    CompletableFuture<Optional<TranslationResponse>> future =
+        api.translate(new TranslateParams("c", List.of("pt")));
+
+    ArgumentCaptor<TranslateParams> captor = ArgumentCaptor.forClass(TranslateParams.class);
+    verify(delegate, times(1)).translate(captor.capture());
+    assertEquals(List.of("b", "c"), new ArrayList<>(captor.getValue().getTexts().values()));
+    assertEquals("c!", translationOf(future));
+  }
+
+  @Test
+  void shouldNotSendBatchWhoseCallsWereCancelled() {
+    AzureApi api =
+        new BatchingAzureApi(
+            delegate, new BatchPolicy().setMaxElements(3).setLinger(Duration.ofMinutes(1)));
+
+    api.translate(new TranslateParams("a", List.of("pt"))).cancel(true);
+    api.translate(new TranslateParams("b", List.of("pt"))).cancel(true);
+    api.disconnect();
+
+    verify(delegate, never()).translate(any());
+  }
+
+  @Test
+  void shouldCancelSentRequestOnceAllCallsAreCancelled() {
+    CompletableFuture<Optional<TranslationResponse>> request = new CompletableFuture<>();
+    doReturn(request).when(delegate).translate(any());
+    AzureApi api =
+        new BatchingAzureApi(
+            delegate, new BatchPolicy().setMaxElements(2).setLinger(Duration.ofMinutes(1)));
+
+    CompletableFuture<Optional<TranslationResponse>> first =
+        api.translate(new TranslateParams("a", List.of("pt")));
+    CompletableFuture<Optional<TranslationResponse>> second =
+        api.translate(new TranslateParams("b", List.of("pt")));
+    verify(delegate, times(1)).translate(any());
+
+    first.cancel(true);
+    assertFalse(request.isCancelled());
+    second.cancel(true);
+    assertTrue(request.isCancelled());
+  }
+
+  @Test
+  void shouldSliceResponseByOffsetOfEachCall() {
+    AzureApi api =
+        new BatchingAzureApi(
+            delegate, new BatchPolicy().setMaxElements(4).setLinger(Duration.ofMinutes(1)));
+
+    api.translate(new TranslateParams("x", List.of("pt"))).cancel(true);
+    CompletableFuture<Optional<TranslationResponse>> first =
+        api.translate(new TranslateParams(List.of("a", "b"), List.of("pt")));
+    CompletableFuture<Optional<TranslationResponse>> second =
+        api.translate(new TranslateParams(List.of("a", "c"), List.of("pt")));
+
+    verify(delegate, times(1)).translate(any());
+    assertEquals(List.of("a!", "b!"), translationsOf(first));
+    assertEquals(List.of("a!", "c!"), translationsOf(second));
+  }
+
+  @Test
+  void shouldResendCallsWhenResponseSkippedTexts() {
+    doAnswer(
+            invocation -> {
+              TranslateParams params = invocation.getArgument(0);
+              List<String> texts = new ArrayList<>(params.getTexts().values());
+              // The batched request has no translation for its first text
+              String suffix = texts.size() > 1 ? "?" : "!";
+              List<TranslationResult> results =
+                  texts.subList(texts.size() > 1 ? 1 : 0, texts.size()).stream()
+                      .map(
+                          text ->
+                              new TranslationResult(
+                                  text, List.of(new Translation("pt", text + suffix))))
+                      .collect(Collectors.toList());
+              return CompletableFuture.completedFuture(
+                  Optional.of(new TranslationResponse(results)));
+            })
+        .when(delegate)
+        .translate(any());
+    AzureApi api =
+        new BatchingAzureApi(
+            delegate, new BatchPolicy().setMaxElements(2).setLinger(Duration.ofMinutes(1)));
+
+    CompletableFuture<Optional<TranslationResponse>> first =
+        api.translate(new TranslateParams("a", List.of("pt")));
+    CompletableFuture<Optional<TranslationResponse>> second =
+        api.translate(new TranslateParams("a", List.of("pt")));
+
+    verify(delegate, times(3)).translate(any());
+    assertEquals("a!", translationOf(first));
+    assertEquals("a!", translationOf(second));
+  }
+
+  @Test
+  void shouldPassOversizedCallsThrough() {
+    AzureApi api =
+        new BatchingAzureApi(
+            delegate, new BatchPolicy().setMaxElements(2).setLinger(Duration.ofMinutes(1)));
+    TranslateParams params = new TranslateParams(List.of("a", "b", "c"), List.of("pt"));
+
+    api.translate(params);
+
+    verify(delegate).translate(params);
+  }
+
+  @Test
+  void shouldFailAllCallsWhenRequestFails() {
+    doReturn(CompletableFuture.failedFuture(new IOException("connection reset")))
+        .when(delegate)
+        .translate(any());
+    AzureApi api =
+        new BatchingAzureApi(
+            delegate, new BatchPolicy().setMaxElements(2).setLinger(Duration.ofMinutes(1)));
+
+    CompletableFuture<Optional<TranslationResponse>> first =
+        api.translate(new TranslateParams("a", List.of("pt")));
+    CompletableFuture<Optional<TranslationResponse>> second =
+        api.translate(new TranslateParams("b", List.of("pt")));
+
+    CompletionException exception = assertThrows(CompletionException.class, first::join);
+    assertInstanceOf(IOException.class, exception.getCause());
+    assertThrows(CompletionException.class, second::join);
+  }
+
+  @Test
+  void policyShouldRejectInvalidValues() {
+    BatchPolicy policy = new BatchPolicy();
+    assertThrows(IllegalArgumentException.class, () -> policy.setMaxElements(0));
+    assertThrows(IllegalArgumentException.class, () -> policy.setMaxElements(101));
+    assertThrows(IllegalArgumentException.class, () -> policy.setMaxCharacters(0));
+    assertThrows(IllegalArgumentException.class, () -> policy.setLinger(Duration.ofMillis(-1)));
+  }
+
+  private static List<String> translationsOf(
+      CompletableFuture<Optional<TranslationResponse>> future) {
+    return future.join().orElseThrow().getResultList().stream()
+        .map(result -> result.getFirstTranslation().map(Translation::getText).orElse(null))
+        .collect(Collectors.toList());
+  }
+
+  private static String translationOf(CompletableFuture<Optional<TranslationResponse>> future) {
+    return future
+        .join()
+        .orElseThrow()
+        .getFirstResult()
+        .getFirstTranslation()
+        .map(Translation::getText)
+        .orElse(null);
+  }
+}
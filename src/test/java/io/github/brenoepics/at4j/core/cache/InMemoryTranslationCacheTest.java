@@ -0,0 +1,103 @@
+package io.github.brenoepics.at4j.core.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.brenoepics.at4j.data.Translation;
+import io.github.brenoepics.at4j.data.TranslationResult;
+import io.github.brenoepics.at4j.data.request.TranslateParams;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class InMemoryTranslationCacheTest {
+
+  @Test
+  void shouldReturnCachedResult() {
+    InMemoryTranslationCache cache = new InMemoryTranslationCache(100);
+    TranslationResult result = result("Hello", "Olá");
+
+    cache.put(key("Hello"), result);
+
+    assertSame(result, cache.get(key("Hello")).orElseThrow());
+    assertEquals(8, cache.getWeight());
+  }
+
+  @Test
+  void shouldSeparateKeysByOptions() {
+    InMemoryTranslationCache cache = new InMemoryTranslationCache(100);
+    cache.put(key("Hello"), result("Hello", "Olá"));
+
+    TranslationCacheKey spanish =
+        TranslationCacheKey.of(new TranslateParams("Hello", List.of("es")), "Hello");
+    TranslationCacheKey fromEnglish =
+        TranslationCacheKey.of(
+            new TranslateParams("Hello", List.of("pt")).setSourceLanguage("en"), "Hello");
+
+    assertFalse(cache.get(spanish).isPresent());
+    assertFalse(cache.get(fromEnglish).isPresent());
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedEntries() {
+    InMemoryTranslationCache cache = new InMemoryTranslationCache(12);
+    cache.put(key("aa"), result("aa", "bb"));
+    cache.put(key("cc"), result("cc", "dd"));
+    cache.put(key("ee"), result("ee", "ff"));
+
+    // Touch the first entry, so the second one is the least recently used
+    assertTrue(cache.get(key("aa")).isPresent());
+    cache.put(key("gg"), result("gg", "hh"));
+
+    assertTrue(cache.get(key("aa")).isPresent());
+    assertFalse(cache.get(key("cc")).isPresent());
+    assertEquals(3, cache.size());
+    assertEquals(12, cache.getWeight());
+  }
+
+  @Test
+  void shouldNotCacheEntriesHeavierThanMaximum() {
+    InMemoryTranslationCache cache = new InMemoryTranslationCache(4);
+    cache.put(key("Hello"), result("Hello", "Olá"));
+
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getWeight());
+  }
+
+  @Test
+  void shouldExpireEntries() throws InterruptedException {
+    InMemoryTranslationCache cache = new InMemoryTranslationCache(100, Duration.ofMillis(1));
+    cache.put(key("Hello"), result("Hello", "Olá"));
+
+    Thread.sleep(10);
+
+    assertFalse(cache.get(key("Hello")).isPresent());
+    assertEquals(0, cache.getWeight());
+  }
+
+  @Test
+  void shouldClearEntries() {
+    InMemoryTranslationCache cache = new InMemoryTranslationCache(100);
+    cache.put(key("Hello"), result("Hello", "Olá"));
+
+    cache.clear();
+
+    assertEquals(0, cache.size());
+    assertFalse(cache.get(key("Hello")).isPresent());
+  }
+
+  @Test
+  void shouldRejectInvalidBounds() {
+    assertThrows(IllegalArgumentException.class, () -> new InMemoryTranslationCache(0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new InMemoryTranslationCache(10, Duration.ofSeconds(-1)));
+  }
+
+  private static TranslationCacheKey key(String text) {
+    return TranslationCacheKey.of(new TranslateParams(text, List.of("pt")), text);
+  }
+
+  private static TranslationResult result(String text, String translation) {
+    return new TranslationResult(text, List.of(new Translation("pt", translation)));
+  }
+}
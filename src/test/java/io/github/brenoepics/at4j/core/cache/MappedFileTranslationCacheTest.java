@@ -0,0 +1,189 @@
+package io.github.brenoepics.at4j.core.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.brenoepics.at4j.data.DetectedLanguage;
+import io.github.brenoepics.at4j.data.Translation;
+import io.github.brenoepics.at4j.data.TranslationResult;
+import io.github.brenoepics.at4j.data.request.TranslateParams;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedFileTranslationCacheTest {
+
+  @TempDir Path directory;
+
+  @Test
+  void shouldKeepEntriesAfterReopening() throws IOException {
+    Path file = directory.resolve("translations.log");
+    TranslationResult result =
+        new TranslationResult(
+            "Hello",
+            new DetectedLanguage("Hello", "en", 1.0f, true, false),
+            List.of(new Translation("pt", "Olá"), new Translation("es", "Hola")));
+
+    try (MappedFileTranslationCache cache = new MappedFileTranslationCache(file, 1 << 20)) {
+      cache.put(key("Hello"), result);
+    }
+
+    try (MappedFileTranslationCache cache = new MappedFileTranslationCache(file, 1 << 20)) {
+      TranslationResult cached = cache.get(key("Hello")).orElseThrow();
+      assertEquals("Hello", cached.getBaseText());
+      assertEquals("en", cached.getDetectedLanguage().getLanguageCode());
+      assertTrue(cached.getDetectedLanguage().isTranslationSupported());
+      assertEquals(2, cached.getTranslations().size());
+      assertEquals("Olá", cached.getFirstTranslation().orElseThrow().getText());
+      assertFalse(cache.get(key("Bye")).isPresent());
+    }
+  }
+
+  @Test
+  void shouldReturnLatestEntryOfOverwrittenKey() throws IOException {
+    try (MappedFileTranslationCache cache =
+        new MappedFileTranslationCache(directory.resolve("translations.log"), 1 << 20)) {
+      cache.put(key("Hello"), result("Hello", "Oi"));
+      cache.put(key("Hello"), result("Hello", "Olá"));
+
+      assertEquals(
+          "Olá",
+          cache.get(key("Hello")).orElseThrow().getFirstTranslation().orElseThrow().getText());
+      assertEquals(1, cache.size());
+    }
+  }
+
+  @Test
+  void shouldCompactOverwrittenEntries() throws IOException {
+    try (MappedFileTranslationCache cache =
+        new MappedFileTranslationCache(directory.resolve("translations.log"), 1 << 20)) {
+      for (int i = 0; i < 10; i++) {
+        cache.put(key("Hello"), result("Hello", "Olá " + i));
+      }
+      long size = cache.getFileSize();
+
+      cache.compact();
+
+      assertTrue(cache.getFileSize() < size);
+      assertEquals(
+          "Olá 9",
+          cache.get(key("Hello")).orElseThrow().getFirstTranslation().orElseThrow().getText());
+    }
+  }
+
+  @Test
+  void shouldCompactIntoNewGeneration() throws IOException {
+    Path file = directory.resolve("translations.log");
+    Path unrelated = Files.writeString(directory.resolve("translations.log.bak"), "backup");
+    try (MappedFileTranslationCache cache = new MappedFileTranslationCache(file, 1 << 20)) {
+      cache.put(key("Hello"), result("Hello", "Oi"));
+      cache.put(key("Hello"), result("Hello", "Olá"));
+      assertTrue(cache.get(key("Hello")).isPresent());
+
+      cache.compact();
+      cache.put(key("Bye"), result("Bye", "Tchau"));
+    }
+
+    assertFalse(Files.exists(file));
+    assertTrue(Files.exists(directory.resolve("translations.log.1")));
+    assertTrue(Files.exists(unrelated));
+    try (MappedFileTranslationCache cache = new MappedFileTranslationCache(file, 1 << 20)) {
+      assertEquals(2, cache.size());
+      assertEquals(
+          "Olá",
+          cache.get(key("Hello")).orElseThrow().getFirstTranslation().orElseThrow().getText());
+      assertTrue(cache.get(key("Bye")).isPresent());
+    }
+  }
+
+  @Test
+  void shouldReadEntriesAppendedAfterMapping() throws IOException {
+    try (MappedFileTranslationCache cache =
+        new MappedFileTranslationCache(directory.resolve("translations.log"), 1 << 20)) {
+      for (int i = 0; i < 200; i++) {
+        cache.put(key("text " + i), result("text " + i, "texto " + i));
+        assertTrue(cache.get(key("text " + i)).isPresent());
+      }
+
+      for (int i = 0; i < 200; i++) {
+        assertEquals(
+            "texto " + i,
+            cache
+                .get(key("text " + i))
+                .orElseThrow()
+                .getFirstTranslation()
+                .orElseThrow()
+                .getText());
+      }
+    }
+  }
+
+  @Test
+  void shouldDropOldestEntriesWhenFull() throws IOException {
+    try (MappedFileTranslationCache cache =
+        new MappedFileTranslationCache(directory.resolve("translations.log"), 1_000)) {
+      for (int i = 0; i < 50; i++) {
+        cache.put(key("text " + i), result("text " + i, "texto " + i));
+      }
+
+      assertTrue(cache.getFileSize() <= 1_000);
+      assertTrue(cache.get(key("text 49")).isPresent());
+      assertFalse(cache.get(key("text 0")).isPresent());
+    }
+  }
+
+  @Test
+  void shouldDiscardIncompleteRecord() throws IOException {
+    Path file = directory.resolve("translations.log");
+    try (MappedFileTranslationCache cache = new MappedFileTranslationCache(file, 1 << 20)) {
+      cache.put(key("Hello"), result("Hello", "Olá"));
+      cache.put(key("Bye"), result("Bye", "Tchau"));
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+
+    try (MappedFileTranslationCache cache = new MappedFileTranslationCache(file, 1 << 20)) {
+      assertTrue(cache.get(key("Hello")).isPresent());
+      assertFalse(cache.get(key("Bye")).isPresent());
+      assertEquals(1, cache.size());
+
+      cache.put(key("Bye"), result("Bye", "Tchau"));
+      assertTrue(cache.get(key("Bye")).isPresent());
+    }
+  }
+
+  @Test
+  void shouldClearEntries() throws IOException {
+    Path file = directory.resolve("translations.log");
+    try (MappedFileTranslationCache cache = new MappedFileTranslationCache(file, 1 << 20)) {
+      cache.put(key("Hello"), result("Hello", "Olá"));
+      cache.clear();
+    }
+
+    try (MappedFileTranslationCache cache = new MappedFileTranslationCache(file, 1 << 20)) {
+      assertEquals(0, cache.size());
+      assertFalse(cache.get(key("Hello")).isPresent());
+    }
+  }
+
+  @Test
+  void shouldRejectForeignFiles() throws IOException {
+    Path file = directory.resolve("foreign.txt");
+    Files.writeString(file, "not a translation cache");
+
+    assertThrows(IOException.class, () -> new MappedFileTranslationCache(file, 1 << 20));
+  }
+
+  private static TranslationCacheKey key(String text) {
+    return TranslationCacheKey.of(new TranslateParams(text, List.of("pt")), text);
+  }
+
+  private static TranslationResult result(String text, String translation) {
+    return new TranslationResult(text, List.of(new Translation("pt", translation)));
+  }
+}
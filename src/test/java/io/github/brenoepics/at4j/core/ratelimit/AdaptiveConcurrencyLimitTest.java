@@ -0,0 +1,64 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTest {
+
+  private static final long LATENCY = 100_000_000L;
+
+  @Test
+  void shouldStartAtMinimum() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 10);
+    assertEquals(2, limit.getLimit());
+  }
+
+  @Test
+  void shouldGrowWhileLatencyIsStable() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 3);
+
+    assertEquals(2, limit.onSample(LATENCY, 1, false));
+    assertEquals(3, limit.onSample(LATENCY, 2, false));
+    assertEquals(3, limit.onSample(LATENCY, 3, false));
+  }
+
+  @Test
+  void shouldNotGrowWhileLimitIsUnused() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 16);
+    assertEquals(8, limit.onSample(LATENCY, 1, false));
+  }
+
+  @Test
+  void shouldHalveOnRateLimit() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 20);
+    for (int i = 0; i < 9; i++) {
+      limit.onSample(LATENCY, limit.getLimit(), false);
+    }
+
+    assertEquals(10, limit.getLimit());
+    assertEquals(5, limit.onSample(LATENCY, 10, true));
+  }
+
+  @Test
+  void shouldShrinkWhenLatencyGrows() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 20);
+    for (int i = 0; i < 9; i++) {
+      limit.onSample(LATENCY, limit.getLimit(), false);
+    }
+
+    assertEquals(9, limit.onSample(LATENCY * 3, 10, false));
+  }
+
+  @Test
+  void shouldNotShrinkBelowMinimum() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 4);
+    assertEquals(2, limit.onSample(LATENCY, 2, true));
+  }
+
+  @Test
+  void shouldRejectInvalidLimits() {
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(0, 1));
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(3, 2));
+  }
+}
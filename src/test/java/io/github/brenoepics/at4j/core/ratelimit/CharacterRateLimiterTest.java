@@ -0,0 +1,73 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CharacterRateLimiterTest {
+
+  private final AtomicLong clock = new AtomicLong();
+
+  @Test
+  void shouldNotDelayWhileCharactersAreAvailable() {
+    CharacterRateLimiter limiter = limiter();
+
+    assertEquals(0, limiter.reserve(600));
+    assertEquals(0, limiter.reserve(400));
+    assertEquals(0, limiter.getAvailableCharacters());
+  }
+
+  @Test
+  void shouldDelayUntilCharactersAreRefilled() {
+    CharacterRateLimiter limiter = limiter();
+    limiter.reserve(1_000);
+
+    assertEquals(Duration.ofMillis(500).toNanos(), limiter.reserve(500));
+    assertEquals(Duration.ofMillis(1_000).toNanos(), limiter.reserve(500));
+  }
+
+  @Test
+  void shouldRefillOverTime() {
+    CharacterRateLimiter limiter = limiter();
+    limiter.reserve(1_000);
+
+    clock.addAndGet(Duration.ofMillis(250).toNanos());
+
+    assertEquals(250, limiter.getAvailableCharacters());
+    assertEquals(0, limiter.reserve(250));
+  }
+
+  @Test
+  void shouldNotRefillBeyondCapacity() {
+    CharacterRateLimiter limiter = limiter();
+
+    clock.addAndGet(Duration.ofHours(1).toNanos());
+
+    assertEquals(1_000, limiter.getAvailableCharacters());
+  }
+
+  @Test
+  void shouldGiveBackRefundedCharacters() {
+    CharacterRateLimiter limiter = limiter();
+    limiter.reserve(1_500);
+
+    limiter.refund(1_000);
+    assertEquals(500, limiter.getAvailableCharacters());
+
+    limiter.refund(1_000);
+    assertEquals(1_000, limiter.getAvailableCharacters());
+  }
+
+  private CharacterRateLimiter limiter() {
+    return new CharacterRateLimiter(1_000, Duration.ofSeconds(1), clock::get);
+  }
+
+  @Test
+  void shouldRejectInvalidLimits() {
+    Duration second = Duration.ofSeconds(1);
+    assertThrows(IllegalArgumentException.class, () -> new CharacterRateLimiter(0, second));
+    assertThrows(IllegalArgumentException.class, () -> new CharacterRateLimiter(1, Duration.ZERO));
+  }
+}
@@ -0,0 +1,100 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private final AtomicLong clock = new AtomicLong();
+
+  @Test
+  void shouldOpenAfterFailuresInARow() {
+    CircuitBreaker breaker = breaker();
+    breaker.onFailure();
+    breaker.onFailure();
+    breaker.onSuccess();
+    breaker.onFailure();
+    breaker.onFailure();
+    assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+    assertTrue(breaker.tryAcquire());
+
+    breaker.onFailure();
+
+    assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquire());
+  }
+
+  @Test
+  void shouldLetSingleProbeThroughAfterOpenDuration() {
+    CircuitBreaker breaker = openBreaker();
+
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+    assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+    assertTrue(breaker.tryAcquire());
+    assertFalse(breaker.tryAcquire());
+    assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+  }
+
+  @Test
+  void shouldCloseWhenProbeSucceeds() {
+    CircuitBreaker breaker = openBreaker();
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+    breaker.tryAcquire();
+
+    breaker.onSuccess();
+
+    assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+    assertTrue(breaker.tryAcquire());
+  }
+
+  @Test
+  void shouldReopenWhenProbeFails() {
+    CircuitBreaker breaker = openBreaker();
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+    breaker.tryAcquire();
+
+    breaker.onFailure();
+
+    assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquire());
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+    assertTrue(breaker.tryAcquire());
+  }
+
+  @Test
+  void shouldLetNextProbeThroughWhenProbeIsCancelled() {
+    CircuitBreaker breaker = openBreaker();
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+    breaker.tryAcquire();
+
+    breaker.onCancelled();
+
+    assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+    assertTrue(breaker.tryAcquire());
+    assertFalse(breaker.tryAcquire());
+  }
+
+  @Test
+  void shouldRejectInvalidValues() {
+    Duration second = Duration.ofSeconds(1);
+
+    assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(0, second));
+    assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(1, Duration.ZERO));
+  }
+
+  private CircuitBreaker breaker() {
+    return new CircuitBreaker(3, Duration.ofSeconds(10), clock::get);
+  }
+
+  private CircuitBreaker openBreaker() {
+    CircuitBreaker breaker = breaker();
+    for (int i = 0; i < 3; i++) {
+      breaker.onFailure();
+    }
+    return breaker;
+  }
+}
@@ -5,13 +5,26 @@ import static org.mockito.Mockito.*;
 
 import io.github.brenoepics.at4j.AzureApi;
 import io.github.brenoepics.at4j.core.AzureApiImpl;
+import io.github.brenoepics.at4j.core.exceptions.CircuitBreakerOpenException;
 import io.github.brenoepics.at4j.util.rest.RestEndpoint;
 import io.github.brenoepics.at4j.util.rest.RestRequest;
 
+import java.io.IOException;
 import java.net.http.HttpHeaders;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.github.brenoepics.at4j.util.rest.RestRequestResult;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +39,7 @@ class RateLimitManagerTest<T, T3, T4> {
   public void setUp() {
     api = mock(AzureApiImpl.class, RETURNS_DEEP_STUBS);
     request = mock(RestRequest.class);
+    when(request.getResult()).thenReturn(new CompletableFuture<>());
     rateLimitManager = new RateLimitManager<>(api);
   }
 
@@ -44,11 +58,103 @@ class RateLimitManagerTest<T, T3, T4> {
   }
 
   @Test
-  void testWaitUntilSpaceGetsAvailable() {
-    RateLimitBucket<T, T4, T3> bucket = new RateLimitBucket<>(RestEndpoint.LANGUAGES);
-    bucket.setRateLimitRemaining(1000);
+  void submitRequestShouldScheduleWhenBucketIsRateLimited() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.LANGUAGES);
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+    bucket.setRateLimitRemaining(0);
     bucket.setRateLimitResetTimestamp(System.currentTimeMillis() + 1000);
-    assertDoesNotThrow(() -> rateLimitManager.waitUntilSpaceGetsAvailable(bucket));
+
+    rateLimitManager.submitRequest(bucket);
+
+    verify(api.getThreadPool().getScheduler())
+        .schedule(any(Runnable.class), longThat(delay -> delay > 0), eq(TimeUnit.MILLISECONDS));
+    assertSame(request, bucket.peekRequestFromQueue());
+    assertEquals(0, bucket.getInFlightRequests());
+  }
+
+  @Test
+  void submitRequestShouldScheduleOneWakeUpPerRateLimitedBucket() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.LANGUAGES);
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+    bucket.onRateLimited(System.currentTimeMillis() + 1000);
+
+    rateLimitManager.submitRequest(bucket);
+    rateLimitManager.submitRequest(bucket);
+    rateLimitManager.submitRequest(bucket);
+
+    verify(api.getThreadPool().getScheduler(), times(1))
+        .schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void submitRequestShouldSendWhenBucketHasSpace() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.LANGUAGES);
+    when(request.executeAsync()).thenReturn(new CompletableFuture<>());
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+
+    rateLimitManager.submitRequest(bucket);
+
+    verify(request).executeAsync();
+    verifyNoInteractions(api.getThreadPool().getScheduler());
+    assertEquals(1, bucket.getInFlightRequests());
+  }
+
+  @Test
+  void submitRequestShouldFailFastWhenCircuitBreakerIsOpen() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.LANGUAGES);
+    CompletableFuture<RestRequestResult> future = new CompletableFuture<>();
+    when(request.getResult()).thenReturn(future);
+    CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofMinutes(1));
+    circuitBreaker.onFailure();
+    rateLimitManager.setCircuitBreaker(RestEndpoint.LANGUAGES, circuitBreaker);
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+
+    rateLimitManager.submitRequest(bucket);
+
+    verify(request, never()).executeAsync();
+    CompletionException exception = assertThrows(CompletionException.class, future::join);
+    assertInstanceOf(CircuitBreakerOpenException.class, exception.getCause());
+    assertEquals(0, bucket.getInFlightRequests());
+  }
+
+  @Test
+  void submitRequestShouldSkipAbortedRequest() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.LANGUAGES);
+    when(request.getResult()).thenReturn(CompletableFuture.failedFuture(new IOException()));
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+
+    rateLimitManager.submitRequest(bucket);
+
+    verify(request, never()).executeAsync();
+    assertNull(bucket.peekRequestFromQueue());
+    assertEquals(0, bucket.getInFlightRequests());
+  }
+
+  @Test
+  void removeRequestShouldDropQueuedRequest() {
+    RestRequest secondRequest = mock(RestRequest.class);
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(secondRequest.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+    bucket.acquireSlot();
+    rateLimitManager.searchBucket(secondRequest);
+
+    rateLimitManager.removeRequest(secondRequest);
+
+    assertNull(bucket.peekRequestFromQueue());
+    assertNull(bucket.acquireSlot());
+  }
+
+  @Test
+  void recordCircuitBreakerShouldOnlyCountFailuresOfAzure() {
+    CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofMinutes(1));
+
+    rateLimitManager.recordCircuitBreaker(circuitBreaker, null);
+    assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+
+    rateLimitManager.recordCircuitBreaker(
+        circuitBreaker, new CompletionException(new IOException("connection reset")));
+    assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
   }
 
   @Test
@@ -100,6 +206,16 @@ class RateLimitManagerTest<T, T3, T4> {
     assertTrue(bucket.isPresent());
   }
 
+  @Test
+  void getMatchingBucketShouldKeepBucketOfEndpoint() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+    bucket.pollRequestFromQueue();
+
+    assertNull(rateLimitManager.retryRequest(bucket));
+    assertSame(bucket, rateLimitManager.getMatchingBucket(request));
+  }
+
   @Test
   void handleResponseShouldUpdateBucketWhenStatusCodeIsNot429() {
     HttpHeaders headers = mock(HttpHeaders.class);
@@ -128,7 +244,427 @@ class RateLimitManagerTest<T, T3, T4> {
     when(result.getResponse()).thenReturn(mock(HttpResponse.class));
     when(result.getResponse().statusCode()).thenReturn(429);
     when(result.getResponse().headers()).thenReturn(headers);
-    rateLimitManager.handleResponse(request, result, bucket, System.currentTimeMillis());
-    assertEquals(10000, bucket.getRateLimitRemaining());
+    long now = System.currentTimeMillis();
+    rateLimitManager.handleResponse(request, result, bucket, now);
+    assertEquals(0, bucket.getRateLimitRemaining());
+    assertTrue(bucket.getTimeTillSpaceGetsAvailable() > 9000);
+  }
+
+  @Test
+  void handleResponseShouldKeepBackoffWhenEarlierRequestSucceedsAfter429() {
+    HttpHeaders rateLimitedHeaders = mock(HttpHeaders.class);
+    when(rateLimitedHeaders.firstValue("Via")).thenReturn(Optional.empty());
+    when(rateLimitedHeaders.firstValue(RateLimitManager.RATE_LIMITED_HEADER_CLOUDFLARE))
+        .thenReturn(Optional.of("10"));
+    RestRequestResult rateLimited = mock(RestRequestResult.class);
+    when(rateLimited.getResponse()).thenReturn(mock(HttpResponse.class));
+    when(rateLimited.getResponse().statusCode()).thenReturn(429);
+    when(rateLimited.getResponse().headers()).thenReturn(rateLimitedHeaders);
+    RestRequestResult succeeded = mock(RestRequestResult.class);
+    when(succeeded.getResponse()).thenReturn(mock(HttpResponse.class));
+    when(succeeded.getResponse().statusCode()).thenReturn(200);
+    when(succeeded.getResponse().headers()).thenReturn(mock(HttpHeaders.class));
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    rateLimitManager.setMaxConcurrentRequests(RestEndpoint.TRANSLATE, 2);
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+
+    rateLimitManager.handleResponse(request, rateLimited, bucket, System.currentTimeMillis());
+    rateLimitManager.handleResponse(request, succeeded, bucket, System.currentTimeMillis());
+
+    assertEquals(0, bucket.getRateLimitRemaining());
+    assertTrue(bucket.getTimeTillSpaceGetsAvailable() > 9000);
+    assertNull(bucket.acquireSlot());
+    assertSame(request, bucket.peekRequestFromQueue());
+  }
+
+  @Test
+  void acquireSlotShouldNotExceedRemainingRateLimit() {
+    RestRequest secondRequest = mock(RestRequest.class);
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(secondRequest.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    rateLimitManager.setMaxConcurrentRequests(RestEndpoint.TRANSLATE, 2);
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+    rateLimitManager.searchBucket(secondRequest);
+    bucket.updateRateLimit(1, System.currentTimeMillis() + 10_000);
+
+    assertSame(request, bucket.acquireSlot());
+    assertNull(bucket.acquireSlot());
+    assertEquals(1, bucket.getInFlightRequests());
+    assertSame(secondRequest, bucket.peekRequestFromQueue());
+  }
+
+  @Test
+  void searchBucketShouldQueueRequestWhenAllSlotsAreOccupied() {
+    RestRequest secondRequest = mock(RestRequest.class);
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(secondRequest.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+    assertSame(request, bucket.acquireSlot());
+    assertTrue(rateLimitManager.searchBucket(secondRequest).isEmpty());
+    assertSame(secondRequest, bucket.peekRequestFromQueue());
+  }
+
+  @Test
+  void searchBucketShouldAllowConfiguredConcurrentRequests() {
+    RestRequest secondRequest = mock(RestRequest.class);
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(secondRequest.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    rateLimitManager.setMaxConcurrentRequests(RestEndpoint.TRANSLATE, 2);
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+    assertSame(request, bucket.acquireSlot());
+    assertTrue(rateLimitManager.searchBucket(secondRequest).isPresent());
+    assertSame(secondRequest, bucket.acquireSlot());
+    assertNull(bucket.acquireSlot());
+    assertEquals(2, bucket.getInFlightRequests());
+  }
+
+  @Test
+  void bucketShouldNotExceedMaxConcurrentRequestsUnderContention() throws Exception {
+    RateLimitBucket<T, T4, T3> bucket = new RateLimitBucket<>(RestEndpoint.TRANSLATE, 4);
+    for (int i = 0; i < 1_000; i++) {
+      bucket.addRequestToQueue(mock(RestRequest.class));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    AtomicInteger maxInFlight = new AtomicInteger();
+    AtomicInteger sent = new AtomicInteger();
+
+    List<Future<?>> workers = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      workers.add(
+          executor.submit(
+              () -> {
+                while (bucket.peekRequestFromQueue() != null) {
+                  if (bucket.acquireSlot() != null) {
+                    maxInFlight.accumulateAndGet(bucket.getInFlightRequests(), Math::max);
+                    sent.incrementAndGet();
+                    bucket.releaseSlot();
+                  }
+                }
+              }));
+    }
+    for (Future<?> worker : workers) {
+      worker.get(10, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    assertEquals(1_000, sent.get());
+    assertTrue(maxInFlight.get() <= 4);
+    assertEquals(0, bucket.getInFlightRequests());
+  }
+
+  @Test
+  void handleCurrentRequestShouldScheduleRetryOfTransientFailure() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    CompletableFuture<RestRequestResult> future = new CompletableFuture<>();
+    when(request.getResult()).thenReturn(future);
+    rateLimitManager.setRetryPolicy(new RetryPolicy());
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+    bucket.acquireSlot();
+
+    rateLimitManager.handleCurrentRequest(
+        request, bucket, null, new CompletionException(new IOException("connection reset")));
+
+    assertFalse(future.isDone());
+    assertNull(bucket.peekRequestFromQueue());
+    assertEquals(0, bucket.getInFlightRequests());
+    verify(request).setRetries(1);
+    verify(api.getThreadPool().getScheduler())
+        .schedule(any(Runnable.class), anyLong(), eq(TimeUnit.NANOSECONDS));
+  }
+
+  @Test
+  void handleCurrentRequestShouldNotRetryPastDeadline() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(request.getDeadline()).thenReturn(System.nanoTime() - 1);
+    CompletableFuture<RestRequestResult> future = new CompletableFuture<>();
+    when(request.getResult()).thenReturn(future);
+    rateLimitManager.setRetryPolicy(new RetryPolicy());
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+    bucket.acquireSlot();
+
+    rateLimitManager.handleCurrentRequest(
+        request, bucket, null, new CompletionException(new HttpTimeoutException("timed out")));
+
+    assertTrue(future.isCompletedExceptionally());
+    verify(request, never()).setRetries(anyInt());
+    verifyNoInteractions(api.getThreadPool().getScheduler());
+  }
+
+  @Test
+  void handleCurrentRequestShouldNotCountRequeuedRequestInRetryBudget() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    CompletableFuture<RestRequestResult> future = new CompletableFuture<>();
+    when(request.getResult()).thenReturn(future);
+    rateLimitManager.setRetryPolicy(new RetryPolicy().setRetryBudget(0.5, 1));
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.getMatchingBucket(request);
+
+    // Takes the only retry of the budget
+    rateLimitManager.handleCurrentRequest(
+        request, bucket, null, new CompletionException(new IOException("connection reset")));
+    // Rate-limited attempts are queued again without adding to the budget
+    rateLimitManager.handleCurrentRequest(request, bucket, null, null);
+    rateLimitManager.handleCurrentRequest(request, bucket, null, null);
+    rateLimitManager.handleCurrentRequest(
+        request, bucket, null, new CompletionException(new IOException("connection reset")));
+
+    assertTrue(future.isCompletedExceptionally());
+  }
+
+  @Test
+  void handleCurrentRequestShouldNotRetryWhenBackoffOutlastsDeadline() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(request.getDeadline()).thenReturn(System.nanoTime() + Duration.ofSeconds(1).toNanos());
+    CompletableFuture<RestRequestResult> future = new CompletableFuture<>();
+    when(request.getResult()).thenReturn(future);
+    // The jittered backoff is shorter than a second only once in 86400 runs
+    rateLimitManager.setRetryPolicy(
+        new RetryPolicy().setBackoff(Duration.ofDays(1), Duration.ofDays(1)));
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+    bucket.acquireSlot();
+
+    rateLimitManager.handleCurrentRequest(
+        request, bucket, null, new CompletionException(new IOException("connection reset")));
+
+    assertTrue(future.isDone());
+    verify(request, never()).setRetries(anyInt());
+  }
+
+  @Test
+  void handleCurrentRequestShouldFailOnceRetriesAreExhausted() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(request.getRetries()).thenReturn(2);
+    CompletableFuture<RestRequestResult> future = new CompletableFuture<>();
+    when(request.getResult()).thenReturn(future);
+    rateLimitManager.setRetryPolicy(new RetryPolicy().setMaxAttempts(3));
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+    bucket.acquireSlot();
+
+    rateLimitManager.handleCurrentRequest(
+        request, bucket, null, new CompletionException(new IOException("connection reset")));
+
+    assertTrue(future.isCompletedExceptionally());
+    verifyNoInteractions(api.getThreadPool().getScheduler());
+  }
+
+  @Test
+  void bucketShouldShareSlotsByPriorityWeight() {
+    RateLimitBucket<T, T4, T3> bucket = new RateLimitBucket<>(RestEndpoint.TRANSLATE);
+    for (int i = 0; i < 20; i++) {
+      bucket.addRequestToQueue(mockRequest(RequestPriority.BULK));
+      bucket.addRequestToQueue(mockRequest(RequestPriority.INTERACTIVE));
+    }
+
+    int interactive = 0;
+    for (int i = 0; i < 17; i++) {
+      if (bucket.pollRequestFromQueue().getPriority() == RequestPriority.INTERACTIVE) {
+        interactive++;
+      }
+    }
+
+    assertEquals(16, interactive);
+    assertEquals(19, bucket.getQueuedRequests(RequestPriority.BULK));
+    assertEquals(RequestPriority.INTERACTIVE, bucket.peekRequestFromQueue().getPriority());
+  }
+
+  @Test
+  void bucketShouldSendInteractiveRequestBeforeQueuedBulkRequests() {
+    RateLimitBucket<T, T4, T3> bucket = new RateLimitBucket<>(RestEndpoint.TRANSLATE);
+    for (int i = 0; i < 100; i++) {
+      bucket.addRequestToQueue(mockRequest(RequestPriority.BULK));
+    }
+    bucket.pollRequestFromQueue();
+    RestRequest interactive = mockRequest(RequestPriority.INTERACTIVE);
+    bucket.addRequestToQueue(interactive);
+
+    assertSame(interactive, bucket.pollRequestFromQueue());
+  }
+
+  private static RestRequest mockRequest(RequestPriority priority) {
+    RestRequest request = mock(RestRequest.class);
+    when(request.getPriority()).thenReturn(priority);
+    return request;
+  }
+
+  @Test
+  void setMaxConcurrentRequestsShouldRejectLessThanOne() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> rateLimitManager.setMaxConcurrentRequests(RestEndpoint.TRANSLATE, 0));
+  }
+
+  @Test
+  void handleCurrentRequestShouldCompleteExceptionallyAndSubmitNextRequest() {
+    RestRequest secondRequest = mock(RestRequest.class);
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(secondRequest.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    CompletableFuture<RestRequestResult> future = new CompletableFuture<>();
+    when(request.getResult()).thenReturn(future);
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+    rateLimitManager.searchBucket(secondRequest);
+    bucket.acquireSlot();
+
+    rateLimitManager.handleCurrentRequest(
+        request, bucket, null, new CompletionException(new IOException("connection reset")));
+
+    assertTrue(future.isCompletedExceptionally());
+    assertSame(secondRequest, bucket.peekRequestFromQueue());
+    assertEquals(0, bucket.getInFlightRequests());
+    verify(api.getThreadPool().getExecutorService()).submit(any(Runnable.class));
+  }
+
+  @Test
+  void queueRequestShouldRejectWhenMaxPendingRequestsIsReached() {
+    RestRequest secondRequest = mock(RestRequest.class);
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(request.getResult()).thenReturn(new CompletableFuture<>());
+    CompletableFuture<RestRequestResult> rejected = new CompletableFuture<>();
+    when(secondRequest.getResult()).thenReturn(rejected);
+    rateLimitManager.setMaxPendingRequests(1, PendingRequestPolicy.REJECT);
+
+    rateLimitManager.queueRequest(request);
+    rateLimitManager.queueRequest(secondRequest);
+
+    assertEquals(1, rateLimitManager.getPendingRequests());
+    CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+    assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+  }
+
+  @Test
+  void queueRequestShouldWaitUntilPendingRequestFinished() {
+    RestRequest secondRequest = mock(RestRequest.class);
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(secondRequest.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    CompletableFuture<RestRequestResult> future = new CompletableFuture<>();
+    when(request.getResult()).thenReturn(future);
+    when(secondRequest.getResult()).thenReturn(new CompletableFuture<>());
+    rateLimitManager.setMaxPendingRequests(1, PendingRequestPolicy.WAIT);
+
+    rateLimitManager.queueRequest(request);
+    rateLimitManager.queueRequest(secondRequest);
+    assertEquals(1, rateLimitManager.getWaitingRequests());
+
+    future.complete(mock(RestRequestResult.class));
+
+    assertEquals(0, rateLimitManager.getWaitingRequests());
+    assertEquals(1, rateLimitManager.getPendingRequests());
+    assertFalse(secondRequest.getResult().isDone());
+  }
+
+  @Test
+  void queueRequestShouldAdmitWaitingRequestsByPriorityWeight() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    CompletableFuture<RestRequestResult> pending = new CompletableFuture<>();
+    when(request.getResult()).thenReturn(pending);
+    rateLimitManager.setMaxPendingRequests(1, PendingRequestPolicy.WAIT);
+    rateLimitManager.queueRequest(request);
+
+    List<RestRequest> waiting = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      waiting.add(mockPendingRequest(RequestPriority.INTERACTIVE));
+    }
+    RestRequest bulk = mockPendingRequest(RequestPriority.BULK);
+    waiting.add(bulk);
+    waiting.forEach(rateLimitManager::queueRequest);
+
+    // The admitted request is the one which waits for its result to release its place
+    int admissions = 0;
+    RestRequest admitted = null;
+    while (admitted != bulk) {
+      pending.complete(mock(RestRequestResult.class));
+      admitted =
+          waiting.stream()
+              .filter(r -> r.getResult().getNumberOfDependents() > 0)
+              .findFirst()
+              .orElseThrow();
+      waiting.remove(admitted);
+      pending = admitted.getResult();
+      admissions++;
+    }
+
+    assertTrue(admissions <= 17, "BULK was admitted after " + admissions + " requests");
+  }
+
+  private static RestRequest mockPendingRequest(RequestPriority priority) {
+    RestRequest request = mockRequest(priority);
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(request.getResult()).thenReturn(new CompletableFuture<>());
+    return request;
+  }
+
+  @Test
+  void setMaxPendingRequestsShouldRejectNegativeValues() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> rateLimitManager.setMaxPendingRequests(-1, PendingRequestPolicy.REJECT));
+  }
+
+  @Test
+  void queueRequestShouldDelayRequestsExceedingCharacterLimit() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(request.getCharacterCost()).thenReturn(150L);
+    rateLimitManager.addCharacterLimiter(new CharacterRateLimiter(100, Duration.ofSeconds(1)));
+
+    rateLimitManager.queueRequest(request);
+
+    verify(api.getThreadPool().getScheduler())
+        .schedule(any(Runnable.class), longThat(delay -> delay > 0), eq(TimeUnit.NANOSECONDS));
+    verify(api.getThreadPool().getExecutorService(), never()).submit(any(Runnable.class));
+  }
+
+  @Test
+  void removeRequestShouldRefundCharactersOfQueuedRequest() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(request.getCharacterCost()).thenReturn(60L);
+    CharacterRateLimiter limiter = new CharacterRateLimiter(100, Duration.ofDays(1));
+    rateLimitManager.addCharacterLimiter(limiter);
+    rateLimitManager.queueRequest(request);
+    assertEquals(40, limiter.getAvailableCharacters());
+
+    rateLimitManager.removeRequest(request);
+
+    assertEquals(100, limiter.getAvailableCharacters());
+    rateLimitManager.removeRequest(request);
+    assertEquals(100, limiter.getAvailableCharacters());
+  }
+
+  @Test
+  void submitRequestShouldRefundCharactersWhenCircuitBreakerIsOpen() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    when(request.getCharacterCost()).thenReturn(60L);
+    CharacterRateLimiter limiter = new CharacterRateLimiter(100, Duration.ofDays(1));
+    rateLimitManager.addCharacterLimiter(limiter);
+    rateLimitManager.queueRequest(request);
+    CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofMinutes(1));
+    circuitBreaker.onFailure();
+    rateLimitManager.setCircuitBreaker(RestEndpoint.TRANSLATE, circuitBreaker);
+
+    rateLimitManager.submitRequest(rateLimitManager.getMatchingBucket(request));
+
+    verify(request, never()).executeAsync();
+    assertEquals(100, limiter.getAvailableCharacters());
+  }
+
+  @Test
+  void updateAdaptiveLimitShouldApplyNewLimitToBuckets() {
+    when(request.getEndpoint()).thenReturn(RestEndpoint.TRANSLATE);
+    rateLimitManager.setAdaptiveConcurrency(
+        RestEndpoint.TRANSLATE, new AdaptiveConcurrencyLimit(1, 4));
+    RateLimitBucket<T, T4, T3> bucket = rateLimitManager.searchBucket(request).orElseThrow();
+    bucket.acquireSlot();
+    RestRequestResult result = mock(RestRequestResult.class, RETURNS_DEEP_STUBS);
+    when(result.getResponse().statusCode()).thenReturn(200);
+
+    assertTrue(rateLimitManager.updateAdaptiveLimit(bucket, 1_000_000L, result, null));
+
+    assertEquals(2, bucket.getMaxConcurrentRequests());
+    assertEquals(2, rateLimitManager.getMaxConcurrentRequests(RestEndpoint.TRANSLATE));
+  }
+
+  @Test
+  void updateAdaptiveLimitShouldIgnoreEndpointsWithFixedLimit() {
+    RateLimitBucket<T, T4, T3> bucket = new RateLimitBucket<>(RestEndpoint.TRANSLATE);
+
+    assertFalse(rateLimitManager.updateAdaptiveLimit(bucket, 1_000_000L, null, null));
+    assertEquals(1, bucket.getMaxConcurrentRequests());
   }
 }
@@ -0,0 +1,95 @@
+package io.github.brenoepics.at4j.core.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import io.github.brenoepics.at4j.core.exceptions.BadRequestException;
+import io.github.brenoepics.at4j.core.exceptions.ServiceUnavailableException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+  @Test
+  void shouldDoubleBackoffUpToMaximum() {
+    RetryPolicy policy =
+        new RetryPolicy().setBackoff(Duration.ofMillis(100), Duration.ofMillis(500));
+
+    assertEquals(Duration.ofMillis(50), policy.getBackoff(1, 0.5));
+    assertEquals(Duration.ofMillis(100), policy.getBackoff(2, 0.5));
+    assertEquals(Duration.ofMillis(200), policy.getBackoff(3, 0.5));
+    assertEquals(Duration.ofMillis(250), policy.getBackoff(4, 0.5));
+    assertEquals(Duration.ofMillis(250), policy.getBackoff(100, 0.5));
+  }
+
+  @Test
+  void shouldJitterBackoff() {
+    RetryPolicy policy = new RetryPolicy();
+
+    assertEquals(Duration.ZERO, policy.getBackoff(1, 0));
+    assertEquals(Duration.ofMillis(25), policy.getBackoff(1, 0.25));
+    Duration backoff = policy.getBackoff(2);
+    assertFalse(backoff.isNegative());
+    assertTrue(backoff.compareTo(Duration.ofMillis(200)) < 0);
+  }
+
+  @Test
+  void shouldRetryTransientErrorsByDefault() {
+    RetryPolicy policy = new RetryPolicy();
+
+    assertTrue(policy.isRetryable(new ConnectException()));
+    assertTrue(policy.isRetryable(mock(ServiceUnavailableException.class)));
+    assertFalse(policy.isRetryable(mock(BadRequestException.class)));
+    assertFalse(policy.isRetryable(new IllegalStateException()));
+  }
+
+  @Test
+  void shouldRetryConfiguredExceptions() {
+    RetryPolicy policy =
+        new RetryPolicy().setRetryableExceptions(Set.of(IllegalStateException.class));
+
+    assertTrue(policy.isRetryable(new IllegalStateException()));
+    assertFalse(policy.isRetryable(new IOException()));
+  }
+
+  @Test
+  void budgetShouldLimitRetriesToRatioOfRequests() {
+    RetryBudget budget = new RetryBudget(new RetryPolicy().setRetryBudget(0.5, 2));
+
+    assertTrue(budget.tryRetry());
+    assertTrue(budget.tryRetry());
+    assertFalse(budget.tryRetry());
+
+    budget.onRequest();
+    assertFalse(budget.tryRetry());
+    budget.onRequest();
+    assertTrue(budget.tryRetry());
+  }
+
+  @Test
+  void budgetShouldNotExceedReserve() {
+    RetryBudget budget = new RetryBudget(new RetryPolicy().setRetryBudget(1, 1));
+    for (int i = 0; i < 10; i++) {
+      budget.onRequest();
+    }
+
+    assertTrue(budget.tryRetry());
+    assertFalse(budget.tryRetry());
+  }
+
+  @Test
+  void shouldRejectInvalidValues() {
+    RetryPolicy policy = new RetryPolicy();
+    Duration second = Duration.ofSeconds(1);
+
+    assertThrows(IllegalArgumentException.class, () -> policy.setMaxAttempts(0));
+    assertThrows(IllegalArgumentException.class, () -> policy.setBackoff(Duration.ZERO, second));
+    assertThrows(
+        IllegalArgumentException.class, () -> policy.setBackoff(second, Duration.ofMillis(1)));
+    assertThrows(IllegalArgumentException.class, () -> policy.setRetryBudget(1.5, 1));
+    assertThrows(IllegalArgumentException.class, () -> policy.setRetryBudget(0.1, -1));
+  }
+}
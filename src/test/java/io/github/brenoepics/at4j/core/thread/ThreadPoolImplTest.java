@@ -4,6 +4,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 
@@ -37,10 +38,29 @@ class ThreadPoolImplTest {
     assertTrue(executorService.isShutdown());
   }
 
+  @Test
+  void shouldShutdownScheduler() {
+    assertFalse(threadPool.getScheduler().isShutdown());
+    threadPool.shutdown();
+    assertTrue(threadPool.getScheduler().isShutdown());
+  }
+
   @Test
   void shouldCreateNewAt4jDefault() {
     ExecutorService executorService = ThreadPoolImpl.newAt4jDefault();
     assertNotNull(executorService);
     assertInstanceOf(ThreadPoolExecutor.class, executorService);
   }
+
+  @Test
+  void shouldCreateVirtualThreadExecutorIfSupported() throws Exception {
+    Optional<ExecutorService> executor = ThreadPoolImpl.newVirtualThreadExecutor();
+    assertEquals(Runtime.version().feature() >= 21, executor.isPresent());
+
+    if (executor.isPresent()) {
+      Thread thread = executor.get().submit(Thread::currentThread).get();
+      assertTrue(thread.getName().startsWith("AT4J - Virtual Thread - "));
+      executor.get().shutdown();
+    }
+  }
 }
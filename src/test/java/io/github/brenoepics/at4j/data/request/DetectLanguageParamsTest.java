@@ -7,13 +7,17 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.brenoepics.at4j.AzureApi;
 import io.github.brenoepics.at4j.core.AzureApiImpl;
+import io.github.brenoepics.at4j.core.ratelimit.RequestPriority;
 import io.github.brenoepics.at4j.data.response.DetectResponse;
 import io.github.brenoepics.at4j.util.rest.RestRequest;
 import io.github.brenoepics.at4j.util.rest.RestRequestResult;
 import java.io.IOException;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 
@@ -60,6 +64,39 @@ class DetectLanguageParamsTest {
     assertEquals("en", result.get().getFirst().getLanguageCode());
   }
 
+  @Test
+  void parseResponse_returnsDetectResponseForValidJsonBody() {
+    DetectLanguageParams params = new DetectLanguageParams(Arrays.asList("Hello", "Olá"));
+    RestRequest request = mock(RestRequest.class);
+    AzureApi azureApi = mock(AzureApiImpl.class);
+    when(azureApi.getObjectMapper()).thenReturn(new ObjectMapper());
+    when(request.getApi()).thenReturn(azureApi);
+    byte[] body =
+        ("[{\"language\":\"en\",\"score\":0.97,\"isTranslationSupported\":true,"
+                + "\"alternatives\":[{\"language\":\"de\",\"score\":0.2}]},"
+                + "{\"language\":\"pt\",\"score\":1.0}]")
+            .getBytes(StandardCharsets.UTF_8);
+    RestRequestResult response =
+        new RestRequestResult(request, mock(HttpResponse.class), body);
+
+    Optional<DetectResponse> result = params.parseResponse(response);
+
+    assertTrue(result.isPresent());
+    assertEquals(2, result.get().getDetectedLanguages().size());
+    assertEquals("en", result.get().getFirst().getLanguageCode());
+    assertTrue(result.get().getFirst().isTranslationSupported());
+    assertEquals("Olá", result.get().getDetectedLanguages().get(1).getBaseText());
+  }
+
+  @Test
+  void getBodyBytes_matchesJsonBody() throws IOException {
+    DetectLanguageParams params = new DetectLanguageParams(Arrays.asList("Hello", "Olá"));
+    ObjectMapper mapper = new ObjectMapper();
+
+    assertEquals(params.getBody(), mapper.readTree(params.getBodyBytes(mapper.getFactory())));
+    assertNull(new DetectLanguageParams(new ArrayList<>()).getBodyBytes(mapper.getFactory()));
+  }
+
   @Test
   void shouldReturnCorrectTextsWhenMultipleTextsAreAdded() {
     DetectLanguageParams params = new DetectLanguageParams("Hello");
@@ -103,4 +140,41 @@ class DetectLanguageParamsTest {
 
     assertTrue(result.isPresent());
   }
+
+  @Test
+  void shouldSplitParamsKeepingOrder() {
+    DetectLanguageParams params = new DetectLanguageParams(Arrays.asList("one", "two", "three"));
+
+    List<DetectLanguageParams> chunks = params.split(2, 50_000);
+
+    assertEquals(2, chunks.size());
+    assertEquals("one", chunks.get(0).getTexts().get(1));
+    assertEquals("two", chunks.get(0).getTexts().get(2));
+    assertEquals("three", chunks.get(1).getTexts().get(1));
+  }
+
+  @Test
+  void shouldNotSplitParamsWithinLimits() {
+    DetectLanguageParams params = new DetectLanguageParams("Hello");
+    assertSame(params, params.split(100, 50_000).get(0));
+  }
+
+  @Test
+  void shouldKeepPriorityAndTimeoutWhenSplit() {
+    DetectLanguageParams params =
+        new DetectLanguageParams(List.of("a", "b"))
+            .setPriority(RequestPriority.BULK)
+            .setTimeout(Duration.ofSeconds(2));
+    assertEquals(RequestPriority.BULK, params.getPriority());
+    assertEquals(Duration.ofSeconds(2), params.getTimeout());
+
+    List<DetectLanguageParams> chunks = params.split(1, 50_000);
+    assertEquals(2, chunks.size());
+    chunks.forEach(
+        chunk -> {
+          assertEquals(RequestPriority.BULK, chunk.getPriority());
+          assertEquals(Duration.ofSeconds(2), chunk.getTimeout());
+        });
+    assertThrows(IllegalArgumentException.class, () -> params.setTimeout(Duration.ZERO));
+  }
 }
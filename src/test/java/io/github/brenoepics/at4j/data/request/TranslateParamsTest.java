@@ -3,17 +3,24 @@ package io.github.brenoepics.at4j.data.request;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.brenoepics.at4j.AzureApi;
 import io.github.brenoepics.at4j.azure.lang.Language;
 import io.github.brenoepics.at4j.azure.lang.LanguageDirection;
+import io.github.brenoepics.at4j.core.ratelimit.RequestPriority;
 import io.github.brenoepics.at4j.data.Translation;
+import io.github.brenoepics.at4j.data.TranslationResult;
 import io.github.brenoepics.at4j.data.request.optional.ProfanityAction;
 import io.github.brenoepics.at4j.data.request.optional.ProfanityMarker;
 import io.github.brenoepics.at4j.data.request.optional.TextType;
 import io.github.brenoepics.at4j.data.response.TranslationResponse;
+import io.github.brenoepics.at4j.util.rest.RestRequest;
 import io.github.brenoepics.at4j.util.rest.RestRequestResult;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,6 +36,12 @@ class TranslateParamsTest {
     assertEquals("Bonjour", params.getTexts().get(1));
   }
 
+  @Test
+  void shouldCountCharactersOncePerTargetLanguage() {
+    TranslateParams params = new TranslateParams(List.of("Hello", "World!"), List.of("fr", "pt"));
+    assertEquals(22, params.getCharacterCount());
+  }
+
   @Test
   void shouldSetAndGetTextType() {
     TranslateParams params = new TranslateParams("Hello", List.of("fr"));
@@ -100,6 +113,29 @@ class TranslateParamsTest {
     assertEquals("en", params.getSuggestedFromLanguage());
   }
 
+  @Test
+  void shouldSetAndGetPriority() {
+    TranslateParams params = new TranslateParams("Hello", List.of("fr"));
+    assertEquals(RequestPriority.NORMAL, params.getPriority());
+
+    params.setPriority(RequestPriority.INTERACTIVE);
+    assertEquals(RequestPriority.INTERACTIVE, params.getPriority());
+    assertTrue(params.getQueryParameters().isEmpty());
+    assertEquals(RequestPriority.INTERACTIVE, params.withTexts(List.of("World")).getPriority());
+  }
+
+  @Test
+  void shouldSetAndGetTimeout() {
+    TranslateParams params = new TranslateParams("Hello", List.of("fr"));
+    assertNull(params.getTimeout());
+
+    params.setTimeout(Duration.ofSeconds(2));
+    assertEquals(Duration.ofSeconds(2), params.getTimeout());
+    assertTrue(params.getQueryParameters().isEmpty());
+    assertEquals(Duration.ofSeconds(2), params.withTexts(List.of("World")).getTimeout());
+    assertThrows(IllegalArgumentException.class, () -> params.setTimeout(Duration.ZERO));
+  }
+
   @Test
   void shouldGetQueryParameters() {
     TranslateParams params = new TranslateParams("Hello", List.of("fr"));
@@ -298,4 +334,97 @@ class TranslateParamsTest {
     assertNotNull(result.get());
     assertTrue(result.get().getFirstResult().getTranslations().isEmpty());
   }
+
+  @Test
+  void shouldNotSplitParamsWithinLimits() {
+    TranslateParams params = new TranslateParams(List.of("Hello", "World"), List.of("fr"));
+    List<TranslateParams> chunks = params.split(100, 50_000);
+    assertEquals(1, chunks.size());
+    assertSame(params, chunks.get(0));
+  }
+
+  @Test
+  void shouldSplitParamsByElementsAndCharacters() {
+    TranslateParams params =
+        new TranslateParams(List.of("a", "bb", "ccc", "dddd", "e"), List.of("fr", "de"))
+            .setSourceLanguage("en")
+            .setTextType(TextType.HTML);
+
+    List<TranslateParams> chunks = params.split(2, 5);
+
+    assertEquals(3, chunks.size());
+    assertEquals(List.of("a", "bb"), new ArrayList<>(chunks.get(0).getTexts().values()));
+    assertEquals(List.of("ccc"), new ArrayList<>(chunks.get(1).getTexts().values()));
+    assertEquals(List.of("dddd", "e"), new ArrayList<>(chunks.get(2).getTexts().values()));
+    for (TranslateParams chunk : chunks) {
+      assertEquals(params.getQueryParameters(), chunk.getQueryParameters());
+      assertEquals(params.getTargetLanguages(), chunk.getTargetLanguages());
+    }
+  }
+
+  @Test
+  void shouldPutOversizedTextIntoOwnChunk() {
+    TranslateParams params = new TranslateParams(List.of("a", "oversized", "b"), List.of("fr"));
+
+    List<TranslateParams> chunks = params.split(100, 3);
+
+    assertEquals(3, chunks.size());
+    assertEquals("oversized", chunks.get(1).getTexts().get(1));
+  }
+
+  @Test
+  void shouldParseResponseWithoutJsonTree() {
+    TranslateParams params = new TranslateParams(List.of("Hello", "Bye"), List.of("pt", "es"));
+    RestRequestResult response =
+        responseOf(
+            "[{\"detectedLanguage\":{\"language\":\"en\",\"score\":0.9},"
+                + "\"translations\":[{\"text\":\"Olá\",\"to\":\"pt\","
+                + "\"alignment\":{\"proj\":\"0:4-0:2\"},\"sentLen\":{\"srcSentLen\":[5]}},"
+                + "{\"text\":\"Hola\",\"to\":\"es\"}]},"
+                + "{\"translations\":[{\"text\":\"Tchau\",\"to\":\"pt\"}]}]");
+
+    TranslationResponse result = params.parseResponse(response).orElseThrow();
+
+    assertEquals(2, result.getResultList().size());
+    TranslationResult first = result.getFirstResult();
+    assertEquals("Hello", first.getBaseText());
+    assertEquals("en", first.getDetectedLanguage().getLanguageCode());
+    assertEquals(0.9f, first.getDetectedLanguage().getScore());
+    assertEquals(2, first.getTranslations().size());
+    assertEquals("Olá", first.getFirstTranslation().orElseThrow().getText());
+    TranslationResult second = result.getResultList().get(1);
+    assertEquals("Bye", second.getBaseText());
+    assertNull(second.getDetectedLanguage());
+    assertEquals("Tchau", second.getFirstTranslation().orElseThrow().getText());
+  }
+
+  @Test
+  void parseResponseShouldReturnEmptyForInvalidBody() {
+    TranslateParams params = new TranslateParams("Hello", List.of("pt"));
+
+    assertFalse(params.parseResponse(responseOf("[]")).isPresent());
+    assertFalse(params.parseResponse(responseOf("{\"error\":{}}")).isPresent());
+    assertFalse(params.parseResponse(responseOf("[{\"translations\":")).isPresent());
+    assertFalse(params.parseResponse(responseOf(null)).isPresent());
+  }
+
+  @Test
+  void bodyBytesShouldMatchJsonBody() throws Exception {
+    TranslateParams params =
+        new TranslateParams(List.of("Hello", "\"Quoted\" \\ ünïcödé 😀"), List.of("pt"));
+    ObjectMapper mapper = new ObjectMapper();
+
+    byte[] body = params.getBodyBytes(mapper.getFactory());
+
+    assertEquals(params.getBody(), mapper.readTree(body));
+  }
+
+  private static RestRequestResult responseOf(String body) {
+    RestRequest request = mock(RestRequest.class);
+    AzureApi api = mock(AzureApi.class);
+    when(request.getApi()).thenReturn(api);
+    when(api.getObjectMapper()).thenReturn(new ObjectMapper());
+    byte[] bytes = body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+    return new RestRequestResult(request, mock(HttpResponse.class), bytes);
+  }
 }
@@ -0,0 +1,433 @@
+package io.github.brenoepics.at4j.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local stand-in for the Azure Translator API. It implements {@code /translate}, {@code /detect}
+ * and {@code /languages} and simulates latency, random server errors, rate-limits and a character
+ * quota, so the client can be tested and benchmarked offline and reproducibly.
+ *
+ * <p>Translations are not real: every text is "translated" to {@code [<language>] <text>}.
+ */
+public class MockTranslatorServer implements AutoCloseable {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  static {
+    // Without it, small responses are delayed by Nagle's algorithm, which dwarfs the latency
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+  }
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  // The random used for the error rate, seeded to keep test runs reproducible
+  private final Random random = new Random(42);
+
+  private final AtomicLong requestCount = new AtomicLong();
+  private final AtomicLong characterCount = new AtomicLong();
+  private final AtomicLong compressedRequestCount = new AtomicLong();
+  private final AtomicLong compressedResponseCount = new AtomicLong();
+
+  private volatile Duration latency = Duration.ZERO;
+  private volatile double errorRate = 0;
+  private volatile long characterQuota = Long.MAX_VALUE;
+  private volatile Set<String> untranslatedTexts = Set.of();
+
+  // The rate-limit, as a fixed window of a maximum amount of requests
+  private int rateLimit = Integer.MAX_VALUE;
+  private long rateLimitWindowMillis = 1000;
+  private long windowStart = 0;
+  private int windowRequests = 0;
+
+  /**
+   * Creates a new server on a random local port. It must be started with {@link #start()}.
+   *
+   * @throws IOException If the server could not be bound.
+   */
+  public MockTranslatorServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(executor);
+    server.createContext("/translate", exchange -> handle(exchange, true, this::translate));
+    server.createContext("/detect", exchange -> handle(exchange, true, this::detect));
+    server.createContext("/languages", exchange -> handle(exchange, false, this::languages));
+  }
+
+  /**
+   * Starts the server.
+   *
+   * @return The current instance in order to chain call methods.
+   */
+  public MockTranslatorServer start() {
+    server.start();
+    return this;
+  }
+
+  /**
+   * Gets the base URI of the server, to be used with {@link
+   * io.github.brenoepics.at4j.AzureApiBuilder#baseURI(URI)}.
+   *
+   * @return The base URI of the server.
+   */
+  public URI getBaseURI() {
+    InetSocketAddress address = server.getAddress();
+    return URI.create("http://" + address.getHostString() + ":" + address.getPort());
+  }
+
+  /**
+   * Sets the time the server waits before it answers a request.
+   *
+   * @param latency The latency of every response.
+   * @return The current instance in order to chain call methods.
+   */
+  public MockTranslatorServer setLatency(Duration latency) {
+    this.latency = latency;
+    return this;
+  }
+
+  /**
+   * Sets the rate of requests which fail with an internal server error.
+   *
+   * @param errorRate The rate of failing requests, between 0 and 1.
+   * @return The current instance in order to chain call methods.
+   */
+  public MockTranslatorServer setErrorRate(double errorRate) {
+    this.errorRate = errorRate;
+    return this;
+  }
+
+  /**
+   * Sets the rate-limit. Requests exceeding it are answered with a 429 response.
+   *
+   * @param requests The maximum amount of requests per window.
+   * @param window The duration of a window.
+   * @return The current instance in order to chain call methods.
+   */
+  public synchronized MockTranslatorServer setRateLimit(int requests, Duration window) {
+    this.rateLimit = requests;
+    this.rateLimitWindowMillis = window.toMillis();
+    return this;
+  }
+
+  /**
+   * Sets the amount of characters which may be translated. Once the quota is exhausted, requests
+   * are answered with a 403 response.
+   *
+   * @param characterQuota The amount of characters which may be translated.
+   * @return The current instance in order to chain call methods.
+   */
+  public MockTranslatorServer setCharacterQuota(long characterQuota) {
+    this.characterQuota = characterQuota;
+    return this;
+  }
+
+  /**
+   * Sets the texts which are answered without translations, like Azure does for texts it can't
+   * translate.
+   *
+   * @param texts The texts which are not translated.
+   * @return The current instance in order to chain call methods.
+   */
+  public MockTranslatorServer setUntranslatedTexts(String... texts) {
+    this.untranslatedTexts = Set.of(texts);
+    return this;
+  }
+
+  /**
+   * Gets the amount of requests the server received, including rejected ones.
+   *
+   * @return The amount of received requests.
+   */
+  public long getRequestCount() {
+    return requestCount.get();
+  }
+
+  /**
+   * Gets the amount of characters the server translated. Each text counts once per target
+   * language, like it does for the Azure quota.
+   *
+   * @return The amount of translated characters.
+   */
+  public long getCharacterCount() {
+    return characterCount.get();
+  }
+
+  /**
+   * Gets the amount of requests whose body was gzip-compressed.
+   *
+   * @return The amount of compressed requests.
+   */
+  public long getCompressedRequestCount() {
+    return compressedRequestCount.get();
+  }
+
+  /**
+   * Gets the amount of responses the server sent gzip-compressed, because the client accepted it.
+   *
+   * @return The amount of compressed responses.
+   */
+  public long getCompressedResponseCount() {
+    return compressedResponseCount.get();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  /**
+   * Handles a request: checks the key, the rate-limit and the error rate before it delegates to the
+   * given handler.
+   *
+   * @param exchange The exchange.
+   * @param authorized Whether the endpoint requires a subscription key, like it does on Azure.
+   * @param handler The handler of the endpoint.
+   * @throws IOException If the response could not be written.
+   */
+  private void handle(HttpExchange exchange, boolean authorized, EndpointHandler handler)
+      throws IOException {
+    try {
+      requestCount.incrementAndGet();
+      sleep(latency);
+
+      if (authorized
+          && exchange.getRequestHeaders().getFirst("Ocp-Apim-Subscription-Key") == null) {
+        sendError(exchange, 401, 401000, "The request is not authorized.");
+        return;
+      }
+
+      long resetAt = acquireRateLimit();
+      if (resetAt < 0) {
+        long retryAfter = Math.max(1, (-resetAt - System.currentTimeMillis() + 999) / 1000);
+        exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfter));
+        exchange.getResponseHeaders().add("X-RateLimit-Remaining", "0");
+        sendError(exchange, 429, 429000, "The client has exceeded request limits.");
+        return;
+      }
+
+      if (errorRate > 0 && nextDouble() < errorRate) {
+        sendError(exchange, 500, 500000, "An unexpected error occurred.");
+        return;
+      }
+
+      JsonNode body;
+      try (InputStream in = openRequestBody(exchange)) {
+        byte[] bytes = in.readAllBytes();
+        body = bytes.length == 0 ? MAPPER.nullNode() : MAPPER.readTree(bytes);
+      }
+
+      JsonNode response = handler.handle(exchange, body);
+      if (response == null) {
+        sendError(exchange, 403, 403001, "The free quota has been exhausted.");
+        return;
+      }
+
+      exchange.getResponseHeaders().add("X-RateLimit-Remaining", String.valueOf(remaining()));
+      exchange.getResponseHeaders().add("X-RateLimit-Reset", String.valueOf(resetAt / 1000.0));
+      send(exchange, 200, response);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  /**
+   * Counts a request against the rate-limit.
+   *
+   * @return The time the current window ends in milliseconds, negated if the limit is exceeded.
+   */
+  private synchronized long acquireRateLimit() {
+    long now = System.currentTimeMillis();
+    if (now - windowStart >= rateLimitWindowMillis) {
+      windowStart = now;
+      windowRequests = 0;
+    }
+
+    long resetAt = windowStart + rateLimitWindowMillis;
+    if (windowRequests >= rateLimit) {
+      return -resetAt;
+    }
+    windowRequests++;
+    return resetAt;
+  }
+
+  private synchronized int remaining() {
+    return Math.max(0, rateLimit - windowRequests);
+  }
+
+  private synchronized double nextDouble() {
+    return random.nextDouble();
+  }
+
+  private JsonNode translate(HttpExchange exchange, JsonNode body) {
+    List<String> targetLanguages = getQueryParameters(exchange.getRequestURI(), "to");
+
+    long characters = 0;
+    for (JsonNode element : body) {
+      characters += (long) element.get("Text").asText().length() * targetLanguages.size();
+    }
+    if (!consumeQuota(characters)) {
+      return null;
+    }
+
+    ArrayNode results = MAPPER.createArrayNode();
+    for (JsonNode element : body) {
+      String text = element.get("Text").asText();
+      ObjectNode result = results.addObject();
+      result.putObject("detectedLanguage").put("language", "en").put("score", 1.0);
+      if (untranslatedTexts.contains(text)) {
+        continue;
+      }
+      ArrayNode translations = result.putArray("translations");
+      for (String language : targetLanguages) {
+        translations.addObject().put("text", "[" + language + "] " + text).put("to", language);
+      }
+    }
+    return results;
+  }
+
+  private JsonNode detect(HttpExchange exchange, JsonNode body) {
+    ArrayNode results = MAPPER.createArrayNode();
+    for (int i = 0; i < body.size(); i++) {
+      results
+          .addObject()
+          .put("language", "en")
+          .put("score", 1.0)
+          .put("isTranslationSupported", true)
+          .put("isTransliterationSupported", true);
+    }
+    return results;
+  }
+
+  private JsonNode languages(HttpExchange exchange, JsonNode body) {
+    ObjectNode response = MAPPER.createObjectNode();
+    ObjectNode translation = response.putObject("translation");
+    translation
+        .putObject("en")
+        .put("name", "English")
+        .put("nativeName", "English")
+        .put("dir", "ltr");
+    translation
+        .putObject("pt")
+        .put("name", "Portuguese")
+        .put("nativeName", "Português")
+        .put("dir", "ltr");
+    translation
+        .putObject("ar")
+        .put("name", "Arabic")
+        .put("nativeName", "العربية")
+        .put("dir", "rtl");
+    return response;
+  }
+
+  /**
+   * Consumes the given amount of characters from the quota.
+   *
+   * @param characters The amount of characters.
+   * @return Whether the quota was sufficient.
+   */
+  private synchronized boolean consumeQuota(long characters) {
+    if (characterCount.get() + characters > characterQuota) {
+      return false;
+    }
+    characterCount.addAndGet(characters);
+    return true;
+  }
+
+  private static List<String> getQueryParameters(URI uri, String name) {
+    List<String> values = new ArrayList<>();
+    if (uri.getRawQuery() == null) {
+      return values;
+    }
+    for (String parameter : uri.getRawQuery().split("&")) {
+      int separator = parameter.indexOf('=');
+      if (separator > 0 && parameter.substring(0, separator).equals(name)) {
+        values.add(URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+      }
+    }
+    return values;
+  }
+
+  private InputStream openRequestBody(HttpExchange exchange) throws IOException {
+    if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+      compressedRequestCount.incrementAndGet();
+      return new GZIPInputStream(exchange.getRequestBody());
+    }
+    return exchange.getRequestBody();
+  }
+
+  private void sendError(HttpExchange exchange, int status, int code, String message)
+      throws IOException {
+    ObjectNode body = MAPPER.createObjectNode();
+    body.putObject("error").put("code", code).put("message", message);
+    send(exchange, status, body);
+  }
+
+  private void send(HttpExchange exchange, int status, JsonNode body) throws IOException {
+    byte[] bytes = MAPPER.writeValueAsBytes(body);
+    String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+    if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+      compressedResponseCount.incrementAndGet();
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+      try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+        gzip.write(bytes);
+      }
+      bytes = compressed.toByteArray();
+      exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+    }
+    exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private static void sleep(Duration duration) {
+    if (duration.isZero()) {
+      return;
+    }
+    try {
+      Thread.sleep(duration.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Handles the request to a single endpoint. */
+  @FunctionalInterface
+  private interface EndpointHandler {
+
+    /**
+     * Creates the response to a request.
+     *
+     * @param exchange The exchange.
+     * @param body The parsed body of the request.
+     * @return The response or {@code null} if the character quota is exhausted.
+     */
+    JsonNode handle(HttpExchange exchange, JsonNode body);
+  }
+}
@@ -0,0 +1,440 @@
+package io.github.brenoepics.at4j.mock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.brenoepics.at4j.AzureApi;
+import io.github.brenoepics.at4j.AzureApiBuilder;
+import io.github.brenoepics.at4j.azure.lang.Language;
+import io.github.brenoepics.at4j.core.cache.InMemoryTranslationCache;
+import io.github.brenoepics.at4j.core.cache.TranslationCache;
+import io.github.brenoepics.at4j.core.cache.TranslationCacheKey;
+import io.github.brenoepics.at4j.core.exceptions.CircuitBreakerOpenException;
+import io.github.brenoepics.at4j.core.exceptions.ForbiddenException;
+import io.github.brenoepics.at4j.core.ratelimit.CircuitBreakerState;
+import io.github.brenoepics.at4j.core.ratelimit.PendingRequestPolicy;
+import io.github.brenoepics.at4j.core.ratelimit.RetryPolicy;
+import io.github.brenoepics.at4j.core.exceptions.InternalServerErrorException;
+import io.github.brenoepics.at4j.data.Translation;
+import io.github.brenoepics.at4j.data.TranslationResult;
+import io.github.brenoepics.at4j.data.request.AvailableLanguagesParams;
+import io.github.brenoepics.at4j.data.request.DetectLanguageParams;
+import io.github.brenoepics.at4j.data.request.TranslateParams;
+import io.github.brenoepics.at4j.data.response.DetectResponse;
+import io.github.brenoepics.at4j.data.response.TranslationResponse;
+import io.github.brenoepics.at4j.util.rest.RestEndpoint;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MockTranslatorServerTest {
+
+  private MockTranslatorServer server;
+  private AzureApi api;
+
+  @BeforeEach
+  void setup() throws IOException {
+    server = new MockTranslatorServer().start();
+    api = new AzureApiBuilder().baseURI(server.getBaseURI()).setKey("test").build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    api.disconnect();
+    server.close();
+  }
+
+  @Test
+  void shouldTranslate() {
+    TranslateParams params = new TranslateParams(List.of("Hello", "World"), List.of("pt", "es"));
+
+    TranslationResponse response = api.translate(params).join().orElseThrow();
+
+    assertEquals(2, response.getResultList().size());
+    assertEquals(
+        List.of("[pt] Hello", "[es] Hello"),
+        response.getFirstResult().getTranslations().stream()
+            .map(Translation::getText)
+            .collect(Collectors.toList()));
+    assertEquals(20, server.getCharacterCount());
+  }
+
+  @Test
+  void shouldFallBackToHttp11() {
+    AzureApi http2Api =
+        new AzureApiBuilder()
+            .baseURI(server.getBaseURI())
+            .setKey("test")
+            .httpVersion(HttpClient.Version.HTTP_2)
+            .build();
+
+    TranslationResponse response =
+        http2Api.translate(new TranslateParams("Hello", List.of("pt"))).join().orElseThrow();
+
+    assertEquals("Hello", response.getFirstResult().getBaseText());
+    http2Api.disconnect();
+  }
+
+  @Test
+  void shouldPrewarmConnections() {
+    api.prewarmConnections(3).join();
+
+    assertEquals(3, server.getRequestCount());
+    assertEquals(0, server.getCharacterCount());
+  }
+
+  @Test
+  void shouldPrewarmConnectionsWhenBuilt() {
+    AzureApi prewarmedApi =
+        new AzureApiBuilder()
+            .baseURI(server.getBaseURI())
+            .setKey("test")
+            .prewarmConnections(2)
+            .build();
+
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          while (server.getRequestCount() < 2) {
+            Thread.sleep(10);
+          }
+        });
+    prewarmedApi.disconnect();
+  }
+
+  @Test
+  void shouldIgnoreFailedWarmUps() {
+    server.close();
+
+    assertDoesNotThrow(() -> api.prewarmConnections(1).join());
+  }
+
+  @Test
+  void shouldMatchFetchedResultsToCachedTextsByBaseText() {
+    server.setUntranslatedTexts("Two");
+    AzureApi cachingApi =
+        new AzureApiBuilder()
+            .baseURI(server.getBaseURI())
+            .setKey("test")
+            .translationCache(new InMemoryTranslationCache(1_000))
+            .build();
+    TranslateParams params = new TranslateParams(List.of("One", "Two", "Three"), List.of("pt"));
+
+    TranslationResponse response = cachingApi.translate(params).join().orElseThrow();
+
+    assertEquals(
+        List.of("One", "Three"),
+        response.getResultList().stream()
+            .map(TranslationResult::getBaseText)
+            .collect(Collectors.toList()));
+    TranslationCache cache = cachingApi.getTranslationCache().orElseThrow();
+    assertTrue(cache.get(TranslationCacheKey.of(params, "Two")).isEmpty());
+    assertEquals(
+        "[pt] Three",
+        cache
+            .get(TranslationCacheKey.of(params, "Three"))
+            .orElseThrow()
+            .getFirstTranslation()
+            .orElseThrow()
+            .getText());
+    cachingApi.disconnect();
+  }
+
+  @Test
+  void shouldDecompressResponses() {
+    TranslationResponse response =
+        api.translate(new TranslateParams("Hello", List.of("pt"))).join().orElseThrow();
+
+    Translation translation = response.getFirstResult().getFirstTranslation().orElseThrow();
+    assertEquals("[pt] Hello", translation.getText());
+    assertEquals(1, server.getCompressedResponseCount());
+  }
+
+  @Test
+  void shouldCompressLargeRequestBodies() {
+    AzureApi compressingApi =
+        new AzureApiBuilder()
+            .baseURI(server.getBaseURI())
+            .setKey("test")
+            .requestCompressionThreshold(64)
+            .build();
+
+    compressingApi.translate(new TranslateParams("Hello", List.of("pt"))).join();
+    TranslationResponse response =
+        compressingApi
+            .translate(new TranslateParams("Hello World! ".repeat(10), List.of("pt")))
+            .join()
+            .orElseThrow();
+
+    assertEquals(1, server.getCompressedRequestCount());
+    assertEquals(135, server.getCharacterCount());
+    assertEquals("Hello World! ".repeat(10), response.getFirstResult().getBaseText());
+    compressingApi.disconnect();
+  }
+
+  @Test
+  void shouldBoundPendingRequests() {
+    server.setLatency(Duration.ofMillis(50));
+    AzureApi boundedApi =
+        new AzureApiBuilder()
+            .baseURI(server.getBaseURI())
+            .setKey("test")
+            .maxPendingRequests(2, PendingRequestPolicy.WAIT)
+            .build();
+
+    List<CompletableFuture<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      futures.add(boundedApi.translate(new TranslateParams("Hello " + i, List.of("pt"))));
+    }
+
+    assertDoesNotThrow(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))::join);
+    assertEquals(5, server.getRequestCount());
+    boundedApi.disconnect();
+  }
+
+  @Test
+  void shouldSpreadTranslationsOverCharacterLimit() {
+    AzureApi limitedApi =
+        new AzureApiBuilder()
+            .baseURI(server.getBaseURI())
+            .setKey("test")
+            .characterLimit(20, Duration.ofSeconds(1))
+            .build();
+
+    long start = System.nanoTime();
+    List<CompletableFuture<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      futures.add(limitedApi.translate(new TranslateParams("0123456789", List.of("pt"))));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 400);
+    assertEquals(30, server.getCharacterCount());
+    limitedApi.disconnect();
+  }
+
+  @Test
+  void shouldAdaptConcurrencyToRateLimits() {
+    server.setLatency(Duration.ofMillis(10)).setRateLimit(4, Duration.ofMillis(200));
+    AzureApi adaptiveApi =
+        new AzureApiBuilder()
+            .baseURI(server.getBaseURI())
+            .setKey("test")
+            .adaptiveConcurrency(RestEndpoint.TRANSLATE, 1, 8)
+            .build();
+
+    List<CompletableFuture<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      futures.add(adaptiveApi.translate(new TranslateParams("Hello " + i, List.of("pt"))));
+    }
+
+    assertDoesNotThrow(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))::join);
+    adaptiveApi.disconnect();
+  }
+
+  @Test
+  void shouldDetectLanguage() {
+    DetectResponse response =
+        api.detectLanguage(new DetectLanguageParams("Hello World!")).join().orElseThrow();
+
+    assertEquals("en", response.getFirst().getLanguageCode());
+  }
+
+  @Test
+  void shouldGetAvailableLanguages() {
+    Collection<Language> languages =
+        api.getAvailableLanguages(new AvailableLanguagesParams()).join().orElseThrow();
+
+    assertEquals(3, languages.size());
+  }
+
+  @Test
+  void shouldRetryRateLimitedRequests() {
+    server.setRateLimit(2, Duration.ofMillis(200));
+
+    List<CompletableFuture<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      futures.add(api.translate(new TranslateParams("Hello " + i, List.of("pt"))));
+    }
+
+    CompletableFuture<Void> all =
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    assertDoesNotThrow(all::join);
+    assertTrue(server.getRequestCount() >= 6);
+  }
+
+  @Test
+  void shouldFailOnServerErrors() {
+    server.setErrorRate(1);
+
+    CompletableFuture<?> future = api.translate(new TranslateParams("Hello", List.of("pt")));
+
+    CompletionException exception = assertThrows(CompletionException.class, future::join);
+    assertInstanceOf(InternalServerErrorException.class, exception.getCause());
+  }
+
+  @Test
+  void shouldRetryServerErrors() {
+    server.setErrorRate(0.3);
+    AzureApi retryingApi =
+        new AzureApiBuilder()
+            .baseURI(server.getBaseURI())
+            .setKey("test")
+            .retryPolicy(
+                new RetryPolicy()
+                    .setMaxAttempts(5)
+                    .setBackoff(Duration.ofMillis(1), Duration.ofMillis(10)))
+            .build();
+
+    List<CompletableFuture<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      futures.add(retryingApi.translate(new TranslateParams("Hello " + i, List.of("pt"))));
+    }
+
+    assertDoesNotThrow(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))::join);
+    assertTrue(server.getRequestCount() > 10);
+    retryingApi.disconnect();
+  }
+
+  @Test
+  void shouldFailOnceRetriesAreExhausted() {
+    server.setErrorRate(1);
+    AzureApi retryingApi =
+        new AzureApiBuilder()
+            .baseURI(server.getBaseURI())
+            .setKey("test")
+            .retryPolicy(
+                new RetryPolicy()
+                    .setMaxAttempts(3)
+                    .setBackoff(Duration.ofMillis(1), Duration.ofMillis(10)))
+            .build();
+
+    CompletableFuture<?> future =
+        retryingApi.translate(new TranslateParams("Hello", List.of("pt")));
+
+    CompletionException exception = assertThrows(CompletionException.class, future::join);
+    assertInstanceOf(InternalServerErrorException.class, exception.getCause());
+    assertEquals(3, server.getRequestCount());
+    retryingApi.disconnect();
+  }
+
+  @Test
+  void shouldFailFastWhileCircuitBreakerIsOpen() {
+    server.setErrorRate(1);
+    AzureApi protectedApi =
+        new AzureApiBuilder()
+            .baseURI(server.getBaseURI())
+            .setKey("test")
+            .circuitBreaker(2, Duration.ofMinutes(1))
+            .build();
+
+    for (int i = 0; i < 2; i++) {
+      CompletableFuture<?> future =
+          protectedApi.translate(new TranslateParams("Hello " + i, List.of("pt")));
+      assertThrows(CompletionException.class, future::join);
+    }
+    CompletableFuture<?> future =
+        protectedApi.translate(new TranslateParams("Hello", List.of("pt")));
+
+    CompletionException exception = assertThrows(CompletionException.class, future::join);
+    assertInstanceOf(CircuitBreakerOpenException.class, exception.getCause());
+    assertEquals(2, server.getRequestCount());
+    assertEquals(
+        CircuitBreakerState.OPEN,
+        protectedApi
+            .getRatelimitManager()
+            .getCircuitBreaker(RestEndpoint.TRANSLATE)
+            .orElseThrow()
+            .getState());
+    protectedApi.disconnect();
+  }
+
+  @Test
+  void shouldTimeOutSlowRequests() {
+    server.setLatency(Duration.ofMillis(500));
+    TranslateParams params =
+        new TranslateParams("Hello", List.of("pt")).setTimeout(Duration.ofMillis(50));
+
+    CompletableFuture<?> future = api.translate(params);
+
+    CompletionException exception = assertThrows(CompletionException.class, future::join);
+    assertTrue(
+        exception.getCause() instanceof TimeoutException
+            || exception.getCause() instanceof HttpTimeoutException);
+  }
+
+  @Test
+  void shouldApplyDefaultRequestTimeout() {
+    server.setLatency(Duration.ofMillis(500));
+    AzureApi timeoutApi =
+        new AzureApiBuilder()
+            .baseURI(server.getBaseURI())
+            .setKey("test")
+            .requestTimeout(Duration.ofMillis(50))
+            .build();
+
+    CompletableFuture<?> future = timeoutApi.translate(new TranslateParams("Hello", List.of("pt")));
+
+    assertThrows(CompletionException.class, future::join);
+    assertEquals(Duration.ofMillis(50), timeoutApi.getRequestTimeout().orElseThrow());
+    timeoutApi.disconnect();
+  }
+
+  @Test
+  void shouldNotSendCancelledRequests() throws InterruptedException {
+    server.setLatency(Duration.ofMillis(200));
+
+    CompletableFuture<?> first = api.translate(new TranslateParams("Hello", List.of("pt")));
+    CompletableFuture<?> second = api.translate(new TranslateParams("World", List.of("pt")));
+    second.cancel(true);
+    first.join();
+    Thread.sleep(100);
+
+    assertTrue(second.isCancelled());
+    assertEquals(1, server.getRequestCount());
+  }
+
+  @Test
+  void shouldReleaseSlotOfAbortedRequests() {
+    server.setLatency(Duration.ofSeconds(2));
+    TranslateParams slow =
+        new TranslateParams("Hello", List.of("pt")).setTimeout(Duration.ofMillis(50));
+    assertThrows(CompletionException.class, api.translate(slow)::join);
+    server.setLatency(Duration.ZERO);
+
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(1),
+        () -> api.translate(new TranslateParams("World", List.of("pt"))).join());
+  }
+
+  @Test
+  void shouldRejectRequestsOnceQuotaIsExhausted() {
+    server.setCharacterQuota(5);
+    api.translate(new TranslateParams("Hello", List.of("pt"))).join();
+
+    CompletableFuture<?> future = api.translate(new TranslateParams("World", List.of("pt")));
+
+    CompletionException exception = assertThrows(CompletionException.class, future::join);
+    assertInstanceOf(ForbiddenException.class, exception.getCause());
+    assertEquals(5, server.getCharacterCount());
+  }
+
+  @Test
+  void shouldRejectBaseUriWithUnsupportedScheme() {
+    AzureApiBuilder builder = new AzureApiBuilder();
+    URI uri = URI.create("ftp://localhost:21");
+
+    assertThrows(IllegalArgumentException.class, () -> builder.baseURI(uri));
+  }
+}
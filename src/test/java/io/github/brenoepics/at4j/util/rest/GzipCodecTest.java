@@ -0,0 +1,27 @@
+package io.github.brenoepics.at4j.util.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class GzipCodecTest {
+
+  @Test
+  void shouldRestoreCompressedBytes() {
+    byte[] bytes = "[{\"Text\":\"Olá, mundo!\"}]".repeat(20).getBytes(StandardCharsets.UTF_8);
+
+    byte[] compressed = GzipCodec.compress(bytes);
+
+    assertTrue(compressed.length < bytes.length);
+    assertArrayEquals(bytes, GzipCodec.decompress(compressed));
+  }
+
+  @Test
+  void shouldRejectInvalidData() {
+    byte[] bytes = "not gzip".getBytes(StandardCharsets.UTF_8);
+
+    assertThrows(UncheckedIOException.class, () -> GzipCodec.decompress(bytes));
+  }
+}
@@ -0,0 +1,46 @@
+package io.github.brenoepics.at4j.util.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.brenoepics.at4j.azure.BaseURL;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RestEndpointTest {
+
+  private final Map<String, Collection<String>> query = new LinkedHashMap<>();
+
+  RestEndpointTest() {
+    query.put("api-version", List.of("3.0"));
+    query.put("to", List.of("pt", "es"));
+  }
+
+  @Test
+  void shouldBuildUrlFromBaseUrl() throws URISyntaxException {
+    URI url = RestEndpoint.TRANSLATE.getHttpUrl(BaseURL.GLOBAL, query);
+
+    assertEquals(
+        "https://" + BaseURL.GLOBAL.getUrl() + "/translate?api-version=3.0&to=pt&to=es",
+        url.toString());
+  }
+
+  @Test
+  void shouldKeepSchemeAndPortOfBaseUri() throws URISyntaxException {
+    URI url = RestEndpoint.DETECT.getHttpUrl(URI.create("http://localhost:8080"), query);
+
+    assertEquals("http://localhost:8080/detect?api-version=3.0&to=pt&to=es", url.toString());
+  }
+
+  @Test
+  void shouldPrefixEndpointWithPathOfBaseUri() throws URISyntaxException {
+    URI url = RestEndpoint.LANGUAGES.getHttpUrl(URI.create("https://gateway.local/tr/"), query);
+
+    assertEquals(
+        "https://gateway.local/tr/languages?api-version=3.0&to=pt&to=es", url.toString());
+  }
+}
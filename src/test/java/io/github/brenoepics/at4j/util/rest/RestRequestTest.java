@@ -6,6 +6,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 
 import java.util.Arrays;
 
@@ -89,4 +90,37 @@ class RestRequestTest {
     restRequest.addHeader("header2", "value2");
     Assertions.assertEquals(2, restRequest.getHeaders().size());
   }
+
+  @Test
+  @DisplayName("Should capture the full origin by default")
+  void shouldCaptureFullOriginByDefault() {
+    Assertions.assertNotNull(restRequest.getOrigin());
+    Assertions.assertTrue(restRequest.getOrigin().getStackTrace().length > 0);
+  }
+
+  @Test
+  @DisplayName("Should capture a limited origin")
+  void shouldCaptureLimitedOrigin() {
+    AzureApi limitedApi = Mockito.mock(AzureApi.class);
+    Mockito.when(limitedApi.getOriginCaptureMode()).thenReturn(OriginCaptureMode.LIMITED);
+
+    StackTraceElement[] frames =
+        new RestRequest(limitedApi, RestMethod.GET, RestEndpoint.LANGUAGES)
+            .getOrigin()
+            .getStackTrace();
+
+    Assertions.assertTrue(frames.length > 0);
+    Assertions.assertTrue(frames.length <= RestRequest.LIMITED_ORIGIN_FRAMES);
+    Assertions.assertEquals(getClass().getName(), frames[0].getClassName());
+  }
+
+  @Test
+  @DisplayName("Should not capture the origin if disabled")
+  void shouldNotCaptureOriginIfDisabled() {
+    AzureApi silentApi = Mockito.mock(AzureApi.class);
+    Mockito.when(silentApi.getOriginCaptureMode()).thenReturn(OriginCaptureMode.NONE);
+
+    Assertions.assertNull(
+        new RestRequest(silentApi, RestMethod.GET, RestEndpoint.LANGUAGES).getOrigin());
+  }
 }